@@ -0,0 +1,140 @@
+/**
+ * Producer to consumer handoff through MPMCQueue and SPSCQueue, against
+ * ArrayBlockingQueue and ConcurrentLinkedQueue.
+ */
+package benchmarks;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+import songs.BoundedQueue;
+import songs.MPMCQueue;
+import songs.SPSCQueue;
+
+/**
+ * One producer and one consumer by default. The non-blocking offer and poll
+ * are retried until they succeed, so scores are handoffs per microsecond.
+ * For more threads use -tg P,C, but not with queue=spsc, it allows one of each.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoundedQueueBenchmark {
+
+	private static final Integer ITEM = 42;
+
+	@Param({"spsc", "mpmc", "arrayBlocking", "concurrentLinked"})
+	String queue;
+
+	@Param({"1024"})
+	int capacity;
+
+	/**
+	 * The operations every queue here has.
+	 */
+	interface Handoff {
+		boolean offer(Integer item);
+
+		Integer poll();
+	}
+
+	private Handoff handoff;
+
+	@Setup
+	public void setup() {
+		switch (queue) {
+		case "spsc":
+			handoff = wrap(new SPSCQueue<Integer>(capacity));
+			break;
+		case "mpmc":
+			handoff = wrap(new MPMCQueue<Integer>(capacity));
+			break;
+		case "arrayBlocking":
+			ArrayBlockingQueue<Integer> abq = new ArrayBlockingQueue<Integer>(capacity);
+			handoff = new Handoff() {
+				public boolean offer(Integer item) {
+					return abq.offer(item);
+				}
+
+				public Integer poll() {
+					return abq.poll();
+				}
+			};
+			break;
+		case "concurrentLinked": 						// unbounded, a counter keeps the producer within capacity
+			ConcurrentLinkedQueue<Integer> clq = new ConcurrentLinkedQueue<Integer>();
+			AtomicInteger size = new AtomicInteger();
+			handoff = new Handoff() {
+				public boolean offer(Integer item) {
+					if (size.get() >= capacity) return false;
+					size.incrementAndGet();
+					return clq.offer(item);
+				}
+
+				public Integer poll() {
+					Integer item = clq.poll();
+					if (item != null) size.decrementAndGet();
+					return item;
+				}
+			};
+			break;
+		default:
+			throw new IllegalArgumentException("unknown queue " + queue);
+		}
+	}
+
+	private static Handoff wrap(BoundedQueue<Integer> q) {
+		return new Handoff() {
+			public boolean offer(Integer item) {
+				return q.offer(item);
+			}
+
+			public Integer poll() {
+				return q.poll();
+			}
+		};
+	}
+
+	@Benchmark
+	@Group("handoff")
+	@GroupThreads(1)
+	public void produce(Control control) {
+		while (!handoff.offer(ITEM)) {
+			if (control.stopMeasurement) return;
+			Thread.onSpinWait();
+		}
+	}
+
+	@Benchmark
+	@Group("handoff")
+	@GroupThreads(1)
+	public Integer consume(Control control) {
+		Integer item;
+		while ((item = handoff.poll()) == null) {
+			if (control.stopMeasurement) return null;
+			Thread.onSpinWait();
+		}
+		return item;
+	}
+
+}
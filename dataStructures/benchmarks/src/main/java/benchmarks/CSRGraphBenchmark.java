@@ -0,0 +1,147 @@
+/**
+ * Traversal and construction of the linked Graph vs CSRGraph.
+ */
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graphs.CSRGraph;
+import graphs.Graph;
+
+/**
+ * Random graphs with average degree 8. The scan benchmarks sum every
+ * adjacency list once, the bfs benchmarks visit every vertex reachable
+ * from 0, and the build benchmarks construct each representation from the
+ * same edge list. Scores are per whole graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class CSRGraphBenchmark {
+
+	@Param({"10000", "1000000"})
+	int V;
+
+	private int[] edges;
+	private Graph linked;
+	private CSRGraph csr;
+	private int[] queue;
+	private boolean[] marked;
+
+	@Setup
+	public void setup() {
+		edges = Data.edges(V, 8, 1);
+		linked = buildLinked();
+		csr = buildCsr();
+		queue = new int[V];
+		marked = new boolean[V];
+	}
+
+	@Benchmark
+	public long linkedScan() {
+		long sum = 0;
+		for (int v = 0; v < linked.V(); v++) {
+			for (int w : linked.adj(v)) sum += w;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long csrScanBoxed() {
+		long sum = 0;
+		for (int v = 0; v < csr.V(); v++) {
+			for (int w : csr.adj(v)) sum += w;
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long csrScanIterator() {
+		long sum = 0;
+		for (int v = 0; v < csr.V(); v++) {
+			for (PrimitiveIterator.OfInt it = csr.adjIterator(v); it.hasNext(); ) sum += it.nextInt();
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public long csrScanSlice() {
+		long sum = 0;
+		for (int v = 0; v < csr.V(); v++) {
+			for (int i = csr.adjStart(v), end = csr.adjEnd(v); i < end; i++) sum += csr.target(i);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int linkedBfs() {
+		Arrays.fill(marked, false);
+		int head = 0, tail = 0;
+		queue[tail++] = 0;
+		marked[0] = true;
+		while (head < tail) {
+			int v = queue[head++];
+			for (int w : linked.adj(v)) {
+				if (!marked[w]) {
+					marked[w] = true;
+					queue[tail++] = w;
+				}
+			}
+		}
+		return tail;
+	}
+
+	@Benchmark
+	public int csrBfs() {
+		Arrays.fill(marked, false);
+		int head = 0, tail = 0;
+		queue[tail++] = 0;
+		marked[0] = true;
+		while (head < tail) {
+			int v = queue[head++];
+			for (int i = csr.adjStart(v), end = csr.adjEnd(v); i < end; i++) {
+				int w = csr.target(i);
+				if (!marked[w]) {
+					marked[w] = true;
+					queue[tail++] = w;
+				}
+			}
+		}
+		return tail;
+	}
+
+	@Benchmark
+	public Graph buildLinked() {
+		Graph G = new Graph(V);
+		for (int e = 0; e < edges.length; e += 2) {
+			G.addEdge(edges[e], edges[e + 1]);
+			G.addEdge(edges[e + 1], edges[e]);
+		}
+		return G;
+	}
+
+	@Benchmark
+	public CSRGraph buildCsr() {
+		CSRGraph.Builder builder = new CSRGraph.Builder(V);
+		for (int e = 0; e < edges.length; e += 2) builder.addEdge(edges[e], edges[e + 1]);
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,97 @@
+/**
+ * get under a Zipfian key distribution: RBT alone and behind CachedRBT with LRU and W-TinyLFU eviction.
+ */
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import songs.CachedRBT;
+import songs.RBT;
+import songs.Song;
+
+/**
+ * Keys follow Zipf with exponent 1 over size Songs, the cache holds 1% of
+ * them. Thread count is set with -t. Hit rates are printed at the end of
+ * each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class CacheBenchmark {
+
+	@Param({"1000000"})
+	int size;
+
+	private Song[] keys; 						// keys[zipf[i]], a power of two of them
+	private RBT<Song, String> rbt;
+	private CachedRBT<Song, String> lru, tinyLfu;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Song[] songs = Data.songs(size, 1);
+		int[] zipf = Data.zipf(size, 1 << 20, 1, 2);
+		keys = new Song[zipf.length];
+		for (int i = 0; i < zipf.length; i++) keys[i] = songs[zipf[i]];
+		rbt = tree(songs);
+		lru = new CachedRBT<Song, String>(tree(songs), size / 100, CachedRBT.Policy.LRU);
+		tinyLfu = new CachedRBT<Song, String>(tree(songs), size / 100, CachedRBT.Policy.TINY_LFU);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		for (CachedRBT<Song, String> cache : Arrays.asList(lru, tinyLfu)) {
+			if (cache.hits() + cache.misses() > 0) System.out.printf("%n%s hit rate %.3f%n", cache.policy(), cache.hitRate());
+		}
+	}
+
+	private static RBT<Song, String> tree(Song[] songs) {
+		RBT<Song, String> tree = new RBT<Song, String>();
+		tree.putAll(songs.clone(), Data.names(songs));
+		return tree;
+	}
+
+	// a random element of the Zipf sequence, so threads share no cursor
+	private Song key() {
+		return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+	}
+
+	/**
+	 * Reads only, so no lock is needed.
+	 */
+	@Benchmark
+	public String rbt() {
+		return rbt.get(key());
+	}
+
+	@Benchmark
+	public String lru() {
+		return lru.get(key());
+	}
+
+	@Benchmark
+	public String tinyLfu() {
+		return tinyLfu.get(key());
+	}
+
+}
@@ -0,0 +1,116 @@
+/**
+ * SongCatalog queries by name, album and length range, against scanning
+ * every Song of an RBT, which is what those queries cost without indexes.
+ */
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import songs.RBT;
+import songs.Song;
+import songs.SongCatalog;
+
+/**
+ * Range queries ask for a 5 second window of lengths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogBenchmark {
+
+	private static final int WINDOW = 5;
+
+	@Param({"100000"})
+	int size;
+
+	private Song[] probes;
+	private int next;
+	private RBT<Song, String> rbt;
+	private SongCatalog catalog;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Song[] songs = Data.songs(size, 1);
+		probes = Data.sample(songs, 1 << 12, 2);
+		rbt = new RBT<Song, String>();
+		RBT<Song, String> indexed = new RBT<Song, String>();
+		for (Song song : songs) {
+			rbt.put(song, song.getName());
+			indexed.put(song, song.getName());
+		}
+		catalog = new SongCatalog(indexed);
+	}
+
+	private Song probe() {
+		return probes[next++ & (probes.length - 1)];
+	}
+
+	@Benchmark
+	public void byName(Blackhole bh) {
+		for (Song song : catalog.byName(probe().getName())) bh.consume(song);
+	}
+
+	@Benchmark
+	public void byAlbum(Blackhole bh) {
+		for (Song song : catalog.byAlbum(probe().getAlbum())) bh.consume(song);
+	}
+
+	@Benchmark
+	public void bySeconds(Blackhole bh) {
+		int lo = probe().getSeconds();
+		for (Song song : catalog.bySeconds(lo, lo + WINDOW)) bh.consume(song);
+	}
+
+	@Benchmark
+	public void scanByName(Blackhole bh) {
+		String name = probe().getName();
+		for (Song song : rbt.keys()) {
+			if (song.getName().equals(name)) bh.consume(song);
+		}
+	}
+
+	@Benchmark
+	public void scanByAlbum(Blackhole bh) {
+		String album = probe().getAlbum();
+		for (Song song : rbt.keys()) {
+			if (song.getAlbum().equals(album)) bh.consume(song);
+		}
+	}
+
+	@Benchmark
+	public void scanBySeconds(Blackhole bh) {
+		int lo = probe().getSeconds();
+		for (Song song : rbt.keys()) {
+			if (song.getSeconds() >= lo && song.getSeconds() <= lo + WINDOW) bh.consume(song);
+		}
+	}
+
+	/**
+	 * put of a new Song and its delete, updating all three indexes.
+	 */
+	@Benchmark
+	public void putDelete() {
+		Song song = probe();
+		Song copy = new Song(song.getName() + "'", "99:59", song.getAlbum(), song.getYear());
+		catalog.put(copy, copy.getName());
+		catalog.delete(copy);
+	}
+
+}
@@ -0,0 +1,88 @@
+/**
+ * ConcurrentRBT under mixed reads and writes from many threads, against an
+ * RBT behind one lock.
+ */
+package benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import songs.ConcurrentRBT;
+import songs.RBT;
+
+/**
+ * Thread count is set on the command line, run with -t 1, 2, 4, ... 64.
+ * Each operation is a put with probability writePercent, else a get,
+ * of a random key in [0, size).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class ConcurrentRBTBenchmark {
+
+	@Param({"100000"})
+	int size;
+
+	@Param({"0", "10", "50"})
+	int writePercent;
+
+	private ConcurrentRBT<Integer, Integer> concurrent;
+	private RBT<Integer, Integer> locked;
+	private final ReentrantLock lock = new ReentrantLock();
+
+	@Setup
+	public void setup() {
+		concurrent = new ConcurrentRBT<Integer, Integer>();
+		locked = new RBT<Integer, Integer>();
+		for (int k : Data.ints(size, size, 1)) {
+			concurrent.put(k, k);
+			locked.put(k, k);
+		}
+	}
+
+	@Benchmark
+	public Integer concurrent() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int key = random.nextInt(size);
+		if (random.nextInt(100) < writePercent) {
+			concurrent.put(key, key);
+			return null;
+		}
+		return concurrent.get(key);
+	}
+
+	@Benchmark
+	public Integer locked() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int key = random.nextInt(size);
+		lock.lock();
+		try {
+			if (random.nextInt(100) < writePercent) {
+				locked.put(key, key);
+				return null;
+			}
+			return locked.get(key);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+}
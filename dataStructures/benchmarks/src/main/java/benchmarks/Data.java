@@ -0,0 +1,265 @@
+/**
+ * Synthetic data for the benchmarks: Songs, songs.csv files, graph input
+ * files in the in5-2.txt format, and skewed key sequences.
+ * Everything is generated from a seed, so every run measures the same data.
+ */
+package benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import songs.Song;
+
+public final class Data {
+
+	private static final int YEARS = 75; 			// 1950 to 2024
+	private static final int MIN_SECONDS = 60;
+	private static final int LENGTHS = 600; 		// 1:00 to 10:59
+
+	private Data() {
+	}
+
+	/**
+	 * Returns n distinct Songs in random order. The number of albums grows
+	 * with n, about 1000 Songs per album, and lengths spread over 1 to 11
+	 * minutes, so 10^7 Songs are still distinct with realistic fields.
+	 * @param n up to 10^7 and beyond
+	 * @param seed
+	 * @return
+	 */
+	public static Song[] songs(int n, long seed) {
+		int albums = Math.max(16, n / 1000);
+		long combinations = (long) LENGTHS * YEARS * albums; 	// at least 45 per Song
+		String[] albumNames = new String[albums];
+		for (int a = 0; a < albums; a++) albumNames[a] = "Album " + a;
+		String[] years = new String[YEARS];
+		for (int y = 0; y < YEARS; y++) years[y] = Integer.toString(1950 + y);
+		Random random = new Random(seed);
+		long step = 1 + random.nextInt(Integer.MAX_VALUE); 	// i -> i * step + offset is a permutation
+		while (gcd(step, combinations) != 1) step++; 			// when step and combinations are coprime
+		long offset = random.nextInt(Integer.MAX_VALUE);
+		Song[] songs = new Song[n];
+		for (int i = 0; i < n; i++) { 				// distinct i give distinct (year, album, seconds)
+			long j = (i * step + offset) % combinations;
+			int seconds = MIN_SECONDS + (int) (j % LENGTHS);
+			int year = (int) (j / LENGTHS % YEARS);
+			int album = (int) (j / LENGTHS / YEARS);
+			String time = (seconds / 60) + ":" + (seconds % 60 < 10 ? "0" : "") + (seconds % 60);
+			songs[i] = new Song("Song " + i, time, albumNames[album], years[year]);
+		}
+		shuffle(songs, random);
+		return songs;
+	}
+
+	private static long gcd(long a, long b) {
+		return (b == 0) ? a : gcd(b, a % b);
+	}
+
+	/**
+	 * @param songs
+	 * @return the names of songs, the values the Drivers store
+	 */
+	public static String[] names(Song[] songs) {
+		String[] names = new String[songs.length];
+		for (int i = 0; i < songs.length; i++) names[i] = songs[i].getName();
+		return names;
+	}
+
+	/**
+	 * Returns count elements of items picked uniformly at random, with repeats.
+	 * count is rounded up to a power of two so benchmarks can cycle with a mask.
+	 * @param items
+	 * @param count
+	 * @param seed
+	 * @return
+	 */
+	public static <T> T[] sample(T[] items, int count, long seed) {
+		Random random = new Random(seed);
+		T[] sample = Arrays.copyOf(items, powerOfTwo(count));
+		for (int i = 0; i < sample.length; i++) sample[i] = items[random.nextInt(items.length)];
+		return sample;
+	}
+
+	/**
+	 * Returns count indexes in [0, n) following a Zipf distribution with
+	 * exponent s, index 0 the most popular. count is rounded up to a power of two.
+	 * @param n
+	 * @param count
+	 * @param s 1 is the classic skew, a few percent of the keys get most lookups
+	 * @param seed
+	 * @return
+	 */
+	public static int[] zipf(int n, int count, double s, long seed) {
+		double[] cdf = new double[n];
+		double sum = 0;
+		for (int i = 0; i < n; i++) cdf[i] = sum += 1 / Math.pow(i + 1, s);
+		Random random = new Random(seed);
+		int[] indexes = new int[powerOfTwo(count)];
+		for (int i = 0; i < indexes.length; i++) {
+			int k = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+			indexes[i] = Math.min(n - 1, (k < 0) ? -k - 1 : k);
+		}
+		return indexes;
+	}
+
+	/**
+	 * Writes songs to path in the songs.csv format, names quoted like the real file.
+	 * @param path
+	 * @param songs
+	 * @return path
+	 */
+	public static Path writeCsv(Path path, Song[] songs) {
+		try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+			for (Song song : songs) {
+				out.write("\"\"\"" + song.getName() + "\"\"\"," + song.getTime() + "," + song.getAlbum() + "," + song.getYear());
+				out.newLine();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return path;
+	}
+
+	/**
+	 * Returns graph input in the in5-2.txt format: V, the number of edge
+	 * lines, then every edge as "name1 name2" and "name2 name1".
+	 * Each vertex gets about degree random neighbours.
+	 * @param V
+	 * @param degree
+	 * @param seed
+	 * @return
+	 */
+	public static String graph(int V, int degree, long seed) {
+		int[] edges = edges(V, degree, seed);
+		StringBuilder in = new StringBuilder();
+		in.append(V).append('\n').append(edges.length).append('\n');
+		for (int e = 0; e < edges.length; e += 2) {
+			int v = edges[e], w = edges[e + 1];
+			in.append('v').append(v).append(" v").append(w).append('\n');
+			in.append('v').append(w).append(" v").append(v).append('\n');
+		}
+		return in.toString();
+	}
+
+	/**
+	 * Returns distinct random undirected edges as pairs, edge i is
+	 * edges[2i]-edges[2i+1]. Each vertex gets about degree neighbours and at
+	 * least one edge, no self loops.
+	 * @param V
+	 * @param degree
+	 * @param seed
+	 * @return
+	 */
+	public static int[] edges(int V, int degree, long seed) {
+		Random random = new Random(seed);
+		HashSet<Long> edges = new HashSet<Long>();
+		int target = Math.min((int) ((long) V * degree / 2), (int) Math.min(Integer.MAX_VALUE / 2, (long) V * (V - 1) / 2));
+		for (int v = 0; v < V && edges.size() < target; v++) { 	// every vertex gets at least one edge
+			int w = random.nextInt(V);
+			if (w != v) edges.add(edge(v, w));
+		}
+		while (edges.size() < target) {
+			int v = random.nextInt(V), w = random.nextInt(V);
+			if (v != w) edges.add(edge(v, w));
+		}
+		int[] pairs = new int[2 * edges.size()];
+		int i = 0;
+		for (long e : edges) {
+			pairs[i++] = (int) (e >>> 32);
+			pairs[i++] = (int) e;
+		}
+		return pairs;
+	}
+
+	/**
+	 * Returns the edges of a Barabasi-Albert graph as pairs, edge i is
+	 * edges[2i]-edges[2i+1], in random order. Each new vertex links to m
+	 * distinct earlier vertices picked in proportion to their degree, so
+	 * degrees follow a power law and the first vertices become hubs with
+	 * about m * sqrt(V) neighbours.
+	 * @param V more than m
+	 * @param m edges added with each vertex
+	 * @param seed
+	 * @return
+	 */
+	public static int[] powerLaw(int V, int m, long seed) {
+		if (V <= m) throw new IllegalArgumentException("V must be more than m");
+		Random random = new Random(seed);
+		int[] edges = new int[2 * (m * (m + 1) / 2 + (V - m - 1) * m)];
+		int k = 0;
+		for (int v = 0; v <= m; v++) { 			// start from a clique of m + 1 vertices
+			for (int w = 0; w < v; w++) {
+				edges[k++] = v;
+				edges[k++] = w;
+			}
+		}
+		int[] targets = new int[m];
+		for (int v = m + 1; v < V; v++) {
+			int start = k;
+			for (int t = 0; t < m; t++) {
+				int w;
+				do w = edges[random.nextInt(start)]; 	// an endpoint of a random edge, by degree
+				while (contains(targets, t, w));
+				targets[t] = w;
+				edges[k++] = v;
+				edges[k++] = w;
+			}
+		}
+		for (int i = edges.length / 2 - 1; i > 0; i--) { 	// shuffle the edges, not their endpoints
+			int j = random.nextInt(i + 1);
+			int u = edges[2 * i], w = edges[2 * i + 1];
+			edges[2 * i] = edges[2 * j];
+			edges[2 * i + 1] = edges[2 * j + 1];
+			edges[2 * j] = u;
+			edges[2 * j + 1] = w;
+		}
+		return edges;
+	}
+
+	private static boolean contains(int[] a, int n, int x) {
+		for (int i = 0; i < n; i++) {
+			if (a[i] == x) return true;
+		}
+		return false;
+	}
+
+	private static long edge(int v, int w) {
+		return ((long) Math.min(v, w) << 32) | Math.max(v, w);
+	}
+
+	/**
+	 * @param n
+	 * @param bound
+	 * @param seed
+	 * @return n ints in [0, bound)
+	 */
+	public static int[] ints(int n, int bound, long seed) {
+		Random random = new Random(seed);
+		int[] ints = new int[n];
+		for (int i = 0; i < n; i++) ints[i] = random.nextInt(bound);
+		return ints;
+	}
+
+	private static <T> void shuffle(T[] a, Random random) {
+		for (int i = a.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			T t = a[i];
+			a[i] = a[j];
+			a[j] = t;
+		}
+	}
+
+	private static int powerOfTwo(int n) {
+		int p = 1;
+		while (p < n) p *= 2;
+		return p;
+	}
+
+}
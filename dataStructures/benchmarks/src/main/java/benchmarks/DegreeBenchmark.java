@@ -0,0 +1,94 @@
+/**
+ * Degree bins and core numbers of a Graph that keeps changing.
+ */
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import graphs.Graph;
+import graphs.IntBag;
+
+/**
+ * Power-law graphs from Data.powerLaw with m = 8.
+ *  - addRemove: adds an edge in both directions and removes it again,
+ *    bins included, so the graph stays the same
+ *  - report: the Driver's report, vertices grouped by degree from the bins
+ *  - rebuildReport: the same report by bagging every vertex by degree,
+ *    what the Graph did once at construction before the bins were kept up to date
+ *  - coreNumbers: the k-core decomposition
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class DegreeBenchmark {
+
+	@Param({"10000", "100000"})
+	int V;
+
+	private Graph graph;
+	private int[] pairs;
+	private int next;
+
+	@Setup
+	public void setup() {
+		int[] edges = Data.powerLaw(V, 8, 1);
+		graph = new Graph(V);
+		for (int e = 0; e < edges.length; e += 2) {
+			graph.addEdge(edges[e], edges[e + 1]);
+			graph.addEdge(edges[e + 1], edges[e]);
+		}
+		pairs = Data.ints(1 << 12, V, 2);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean addRemove() {
+		int u = pairs[next], v = pairs[next + 1];
+		next = (next + 2) & (pairs.length - 1);
+		graph.addEdge(u, v);
+		graph.addEdge(v, u);
+		graph.removeEdge(v, u);
+		return graph.removeEdge(u, v);
+	}
+
+	@Benchmark
+	public void report(Blackhole bh) {
+		for (int d = graph.maxDegree(); d >= 0; d--) {
+			for (int v : graph.vertsDegree(d)) bh.consume(v);
+		}
+	}
+
+	@Benchmark
+	public void rebuildReport(Blackhole bh) {
+		int max = 0;
+		for (int v = 0; v < V; v++) max = Math.max(max, graph.degree(v));
+		IntBag[] bags = new IntBag[max + 1];
+		for (int d = 0; d <= max; d++) bags[d] = new IntBag();
+		for (int v = 0; v < V; v++) bags[graph.degree(v)].insert(v);
+		for (int d = max; d >= 0; d--) {
+			for (int v : bags[d]) bh.consume(v);
+		}
+	}
+
+	@Benchmark
+	public int[] coreNumbers() {
+		return graph.coreNumbers();
+	}
+
+}
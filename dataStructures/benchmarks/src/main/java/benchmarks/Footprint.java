@@ -0,0 +1,99 @@
+/**
+ * Prints the heap and direct memory used by a catalog of n Songs held as an
+ * RBT and as a SongStore, or by a graph with V vertices held as a Graph and as
+ * a CSRGraph, measured after full GCs. Not a JMH benchmark, run it with
+ * java -cp benchmarks.jar benchmarks.Footprint [n]
+ * java -cp benchmarks.jar benchmarks.Footprint graph [V]
+ */
+package benchmarks;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+import graphs.CSRGraph;
+import graphs.Graph;
+import songs.RBT;
+import songs.Song;
+import songs.SongStore;
+
+public class Footprint {
+
+	public static void main(String[] args) {
+		if (args.length > 0 && args[0].equals("graph")) {
+			graph((args.length > 1) ? Integer.parseInt(args[1]) : 1000000);
+			return;
+		}
+		int n = (args.length > 0) ? Integer.parseInt(args[0]) : 1000000;
+		System.out.printf("%d Songs%n", n);
+		System.out.printf("%-10s %12s %12s%n", "", "heap", "direct");
+		print("RBT", () -> {
+			Song[] songs = Data.songs(n, 1);
+			RBT<Song, String> rbt = new RBT<Song, String>();
+			rbt.putAll(songs, Data.names(songs));
+			return rbt;
+		});
+		print("SongStore", () -> {
+			Song[] songs = Data.songs(n, 1);
+			SongStore.Builder builder = new SongStore.Builder();
+			for (Song song : songs) builder.add(song, song.getName());
+			return builder.build();
+		});
+	}
+
+	/**
+	 * Random graph with average degree 8, as in CSRGraphBenchmark.
+	 * @param V
+	 */
+	private static void graph(int V) {
+		int[] edges = Data.edges(V, 8, 1);
+		System.out.printf("%d vertices, %d edges%n", V, edges.length / 2);
+		System.out.printf("%-10s %12s %12s%n", "", "heap", "direct");
+		print("Graph", () -> {
+			Graph G = new Graph(V);
+			for (int e = 0; e < edges.length; e += 2) {
+				G.addEdge(edges[e], edges[e + 1]);
+				G.addEdge(edges[e + 1], edges[e]);
+			}
+			return G;
+		});
+		print("CSRGraph", () -> {
+			CSRGraph.Builder builder = new CSRGraph.Builder(V);
+			for (int e = 0; e < edges.length; e += 2) builder.addEdge(edges[e], edges[e + 1]);
+			return builder.build();
+		});
+	}
+
+	/**
+	 * Prints the heap and direct memory still in use while the result of build is alive.
+	 * @param name
+	 * @param build
+	 */
+	private static void print(String name, Supplier<Object> build) {
+		long heap = used(), direct = direct();
+		Object kept = build.get();
+		heap = used() - heap;
+		direct = direct() - direct;
+		System.out.printf("%-10s %12s %12s%n", name, mb(heap), mb(direct));
+		if (kept.hashCode() == 42) System.out.print(""); 	// keep it reachable until here
+	}
+
+	private static long direct() {
+		long bytes = 0;
+		for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+			if (pool.getName().equals("direct")) bytes += pool.getMemoryUsed();
+		}
+		return bytes;
+	}
+
+	private static long used() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) System.gc();
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static String mb(long bytes) {
+		return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+	}
+
+}
@@ -0,0 +1,61 @@
+/**
+ * Graph construction from in5-2.txt format input.
+ */
+package benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graphs.Graph;
+
+/**
+ * V = 0 reads the real in5-2.txt (48 states), other sizes are random graphs
+ * with average degree 8. The input is held in a String, so the Scanner
+ * parses from memory and the score is parsing plus building.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBenchmark {
+
+	@Param({"0", "1000", "10000", "100000"})
+	int V;
+
+	private String input;
+
+	@Setup
+	public void setup() throws IOException {
+		if (V == 0) {
+			try (InputStream in = Graph.class.getResourceAsStream("in5-2.txt")) {
+				if (in == null) throw new IllegalStateException("in5-2.txt is not on the classpath");
+				input = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+			}
+		} else {
+			input = Data.graph(V, 8, 1);
+		}
+	}
+
+	@Benchmark
+	public Graph construct() {
+		return new Graph(new Scanner(input));
+	}
+
+}
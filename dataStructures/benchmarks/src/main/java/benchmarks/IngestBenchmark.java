@@ -0,0 +1,126 @@
+/**
+ * Loading a songs.csv catalog into RBT<Song, String>: the original
+ * BufferedReader and Scanner loop, SongReader, SongLoader on one and on all
+ * threads, and the binary snapshot.
+ */
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import songs.RBT;
+import songs.Song;
+import songs.SongLoader;
+import songs.SongReader;
+import songs.SongSnapshot;
+
+/**
+ * The files are written to a temporary directory once per trial and read
+ * from the page cache, so scores are parsing and building, not disk.
+ * size goes up to 10^7 with -p size=10000000.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IngestBenchmark {
+
+	@Param({"100000", "1000000"})
+	int size;
+
+	private Path dir, csv, snapshot;
+	private ForkJoinPool single;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		dir = Files.createTempDirectory("ingest");
+		csv = Data.writeCsv(dir.resolve("songs.csv"), Data.songs(size, 1));
+		snapshot = dir.resolve("songs.bin");
+		SongSnapshot.write(SongLoader.load(csv), snapshot);
+		single = new ForkJoinPool(1);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		single.shutdown();
+		Files.deleteIfExists(csv);
+		Files.deleteIfExists(snapshot);
+		Files.deleteIfExists(dir);
+	}
+
+	/**
+	 * The loop Driver used before SongReader: a Scanner and a regex per line,
+	 * one put per Song.
+	 */
+	@Benchmark
+	public RBT<Song, String> scanner() throws IOException {
+		RBT<Song, String> rbt = new RBT<Song, String>();
+		try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				try (Scanner in = new Scanner(line.replaceAll("\"\"\"", "\""))) {
+					in.useDelimiter(",");
+					Song song = new Song(in.next(), in.next(), in.next(), in.next());
+					rbt.put(song, song.getName());
+				}
+			}
+		}
+		return rbt;
+	}
+
+	/**
+	 * SongReader, one put per Song.
+	 */
+	@Benchmark
+	public RBT<Song, String> reader() throws IOException {
+		RBT<Song, String> rbt = new RBT<Song, String>();
+		new SongReader().read(csv, song -> rbt.put(song, song.getName()));
+		return rbt;
+	}
+
+	@Benchmark
+	public RBT<Song, String> loaderOneThread() throws IOException {
+		return SongLoader.load(csv, single);
+	}
+
+	@Benchmark
+	public RBT<Song, String> loader() throws IOException {
+		return SongLoader.load(csv);
+	}
+
+	@Benchmark
+	public RBT<Song, String> snapshotLoad() throws IOException {
+		return SongSnapshot.load(snapshot);
+	}
+
+	/**
+	 * Maps the snapshot without building a tree, lookups read the file.
+	 */
+	@Benchmark
+	public SongSnapshot snapshotMap() throws IOException {
+		return SongSnapshot.map(snapshot);
+	}
+
+}
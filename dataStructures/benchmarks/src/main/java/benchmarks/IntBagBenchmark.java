@@ -0,0 +1,87 @@
+/**
+ * IntBag insert, contains, iteration and deleteDups.
+ */
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import graphs.IntBag;
+
+/**
+ * Bags hold size values drawn from [0, size / 2), so about half are duplicates.
+ * Adjacency lists are small, the large sizes show how each operation scales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntBagBenchmark {
+
+	@Param({"8", "64", "4096"})
+	int size;
+
+	private int[] values;
+	private int[] probes;
+	private int next;
+	private IntBag bag;
+
+	@Setup
+	public void setup() {
+		values = Data.ints(size, Math.max(1, size / 2), 1);
+		probes = Data.ints(1 << 12, size, 2);
+		bag = fill();
+	}
+
+	private IntBag fill() {
+		IntBag b = new IntBag();
+		for (int v : values) b.insert(v);
+		return b;
+	}
+
+	@Benchmark
+	public IntBag insert() {
+		return fill();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean contains() {
+		return bag.contains(probes[next++ & (probes.length - 1)]);
+	}
+
+	@Benchmark
+	public void iterate(Blackhole bh) {
+		for (int v : bag) bh.consume(v);
+	}
+
+	@Benchmark
+	public void forEach(Blackhole bh) {
+		bag.forEachInt(v -> bh.consume(v));
+	}
+
+	/**
+	 * Includes filling a fresh bag, compare with insert.
+	 */
+	@Benchmark
+	public IntBag deleteDups() {
+		IntBag b = fill();
+		b.deleteDups();
+		return b;
+	}
+
+}
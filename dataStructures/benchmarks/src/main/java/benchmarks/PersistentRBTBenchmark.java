@@ -0,0 +1,80 @@
+/**
+ * Making a new version of a tree: PersistentRBT.put, which copies one path,
+ * against copying a whole RBT and putting into the copy.
+ */
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import songs.PersistentRBT;
+import songs.RBT;
+
+/**
+ * Memory per version: run with -prof gc, gc.alloc.rate.norm is the bytes
+ * each new version allocates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistentRBTBenchmark {
+
+	@Param({"1000", "100000"})
+	int size;
+
+	private int[] keys;
+	private int next;
+	private PersistentRBT<Integer, Integer> persistent;
+	private RBT<Integer, Integer> rbt;
+
+	@Setup
+	public void setup() {
+		keys = Data.ints(1 << 16, 2 * size, 2);
+		persistent = new PersistentRBT<Integer, Integer>();
+		rbt = new RBT<Integer, Integer>();
+		for (int k : Data.ints(size, 2 * size, 1)) {
+			persistent = persistent.put(k, k);
+			rbt.put(k, k);
+		}
+	}
+
+	/**
+	 * A new version, the old one is left unchanged and shares all but one path.
+	 */
+	@Benchmark
+	public PersistentRBT<Integer, Integer> persistentPut() {
+		int k = keys[next++ & (keys.length - 1)];
+		return persistent.put(k, k);
+	}
+
+	/**
+	 * A new version by copying every Node, the way to keep old versions without sharing.
+	 */
+	@Benchmark
+	public RBT<Integer, Integer> copyAndPut() {
+		int k = keys[next++ & (keys.length - 1)];
+		RBT<Integer, Integer> copy = RBT.fromSorted(rbt.stream().iterator());
+		copy.put(k, k);
+		return copy;
+	}
+
+	@Benchmark
+	public Integer persistentGet() {
+		return persistent.get(keys[next++ & (keys.length - 1)]);
+	}
+
+}
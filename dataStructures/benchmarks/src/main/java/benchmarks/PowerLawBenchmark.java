@@ -0,0 +1,121 @@
+/**
+ * Graph construction and edge checks on power-law graphs, where a few hubs
+ * hold a large share of the edges.
+ */
+package benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import benchmarks.baseline.LinkedIntBag;
+import graphs.Graph;
+import graphs.IntBag;
+
+/**
+ * Each build adds every edge in both directions, as Graph(Scanner) does,
+ * and counts E the way Graph.addEdge does:
+ *  - linkedBags: the original linked IntBags, E counted with IntBag.contains
+ *  - arrayBags: array IntBags, E still counted with IntBag.contains
+ *  - graph: Graph.addEdge, E counted with its AdjacencySets
+ * The edge checks probe pairs whose first vertex is picked in proportion
+ * to its degree, so hubs are probed most, as in a real edge stream.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class PowerLawBenchmark {
+
+	@Param({"10000", "100000"})
+	int V;
+
+	private int[] edges;
+	private int[] probes;
+	private LinkedIntBag[] linked;
+	private Graph graph;
+	private int next;
+
+	@Setup
+	public void setup() {
+		edges = Data.powerLaw(V, 8, 1);
+		probes = new int[2 << 12];
+		Random random = new Random(2);
+		for (int i = 0; i < probes.length; i += 2) {
+			probes[i] = edges[random.nextInt(edges.length)]; 	// an endpoint, by degree
+			probes[i + 1] = random.nextInt(V);
+		}
+		buildLinkedBags();
+		graph = buildGraph();
+	}
+
+	@Benchmark
+	public int buildLinkedBags() {
+		linked = new LinkedIntBag[V];
+		for (int v = 0; v < V; v++) linked[v] = new LinkedIntBag();
+		int E = 0;
+		for (int e = 0; e < edges.length; e += 2) {
+			int u = edges[e], v = edges[e + 1];
+			linked[u].insert(v);
+			if (!linked[v].contains(u)) E++;
+			linked[v].insert(u);
+			if (!linked[u].contains(v)) E++;
+		}
+		return E;
+	}
+
+	@Benchmark
+	public int buildArrayBags() {
+		IntBag[] adj = new IntBag[V];
+		for (int v = 0; v < V; v++) adj[v] = new IntBag();
+		int E = 0;
+		for (int e = 0; e < edges.length; e += 2) {
+			int u = edges[e], v = edges[e + 1];
+			adj[u].insert(v);
+			if (!adj[v].contains(u)) E++;
+			adj[v].insert(u);
+			if (!adj[u].contains(v)) E++;
+		}
+		return E;
+	}
+
+	@Benchmark
+	public Graph buildGraph() {
+		Graph G = new Graph(V);
+		for (int e = 0; e < edges.length; e += 2) {
+			G.addEdge(edges[e], edges[e + 1]);
+			G.addEdge(edges[e + 1], edges[e]);
+		}
+		return G;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean linkedContains() {
+		int i = next;
+		next = (next + 2) & (probes.length - 1);
+		return linked[probes[i]].contains(probes[i + 1]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean hasEdge() {
+		int i = next;
+		next = (next + 2) & (probes.length - 1);
+		return graph.hasEdge(probes[i], probes[i + 1]);
+	}
+
+}
@@ -0,0 +1,93 @@
+/**
+ * Queue enqueue and dequeue: the array Queue, the linked baseline, IntQueue
+ * and java.util.ArrayDeque.
+ */
+package benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import benchmarks.baseline.LinkedQueue;
+import songs.IntQueue;
+import songs.Queue;
+
+/**
+ * Each invocation enqueues depth items, then dequeues them all, like a BFS
+ * level. Scores are per item.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark {
+
+	private static final int OPS = 1 << 16; 		// items per invocation, whatever the depth
+
+	@Param({"16", "1024", "65536"})
+	int depth;
+
+	private Integer[] items;
+	private final Queue<Integer> queue = new Queue<Integer>();
+	private final LinkedQueue<Integer> linked = new LinkedQueue<Integer>();
+	private final IntQueue ints = new IntQueue();
+	private final ArrayDeque<Integer> deque = new ArrayDeque<Integer>();
+
+	@Setup
+	public void setup() {
+		items = new Integer[depth];
+		for (int i = 0; i < depth; i++) items[i] = i;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPS)
+	public void arrayQueue(Blackhole bh) {
+		for (int round = 0; round < OPS / depth; round++) {
+			for (Integer item : items) queue.enqueue(item);
+			while (!queue.isEmpty()) bh.consume(queue.dequeue());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPS)
+	public void linkedQueue(Blackhole bh) {
+		for (int round = 0; round < OPS / depth; round++) {
+			for (Integer item : items) linked.enqueue(item);
+			while (!linked.isEmpty()) bh.consume(linked.dequeue());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPS)
+	public void intQueue(Blackhole bh) {
+		for (int round = 0; round < OPS / depth; round++) {
+			for (int i = 0; i < depth; i++) ints.enqueue(i);
+			while (!ints.isEmpty()) bh.consume(ints.dequeue());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(OPS)
+	public void arrayDeque(Blackhole bh) {
+		for (int round = 0; round < OPS / depth; round++) {
+			for (Integer item : items) deque.addLast(item);
+			while (!deque.isEmpty()) bh.consume(deque.pollFirst());
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+/**
+ * RBT<Song, String> get, put and in-order keys, against the recursive
+ * baseline and with metrics on.
+ */
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import benchmarks.baseline.RecursiveRBT;
+import songs.RBT;
+import songs.Song;
+
+/**
+ * size goes up to 10^7 with -p size=10000000 (needs a few GB of heap).
+ * get cycles through random keys already in the tree, so it measures
+ * cache misses on large trees as much as comparisons.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RBTBenchmark {
+
+	@Param({"1000", "100000", "1000000"})
+	int size;
+
+	private Song[] songs;
+	private String[] names;
+	private Song[] probes; 						// random keys in the tree, a power of two of them
+	private int next;
+	private RBT<Song, String> rbt;
+	private RBT<Song, String> measured; 		// same tree with metrics on
+	private RecursiveRBT<Song, String> recursive;
+
+	@Setup
+	public void setup() {
+		songs = Data.songs(size, 1);
+		names = Data.names(songs);
+		probes = Data.sample(songs, 1 << 16, 2);
+		rbt = new RBT<Song, String>();
+		measured = new RBT<Song, String>();
+		measured.enableMetrics();
+		recursive = new RecursiveRBT<Song, String>();
+		for (int i = 0; i < size; i++) {
+			rbt.put(songs[i], names[i]);
+			measured.put(songs[i], names[i]);
+			recursive.put(songs[i], names[i]);
+		}
+	}
+
+	private Song probe() {
+		return probes[next++ & (probes.length - 1)];
+	}
+
+	@Benchmark
+	public String get() {
+		return rbt.get(probe());
+	}
+
+	@Benchmark
+	public String getRecursive() {
+		return recursive.get(probe());
+	}
+
+	@Benchmark
+	public String getWithMetrics() {
+		return measured.get(probe());
+	}
+
+	/**
+	 * put of a key already in the tree, so the tree doesn't grow.
+	 */
+	@Benchmark
+	public void putExisting() {
+		Song song = probe();
+		rbt.put(song, song.getName());
+	}
+
+	/**
+	 * Builds a tree of size random keys, one put at a time.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public RBT<Song, String> build() {
+		RBT<Song, String> tree = new RBT<Song, String>();
+		for (int i = 0; i < size; i++) tree.put(songs[i], names[i]);
+		return tree;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public RecursiveRBT<Song, String> buildRecursive() {
+		RecursiveRBT<Song, String> tree = new RecursiveRBT<Song, String>();
+		for (int i = 0; i < size; i++) tree.put(songs[i], names[i]);
+		return tree;
+	}
+
+	/**
+	 * Builds the same tree with putAll, which sorts and bulk loads.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public RBT<Song, String> buildPutAll() {
+		RBT<Song, String> tree = new RBT<Song, String>();
+		tree.putAll(songs.clone(), names.clone());
+		return tree;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void keys(Blackhole bh) {
+		for (Song song : rbt.keys()) bh.consume(song);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void stream(Blackhole bh) {
+		rbt.stream().forEach(bh::consume); 				// count() could skip the walk, the stream is SIZED
+	}
+
+}
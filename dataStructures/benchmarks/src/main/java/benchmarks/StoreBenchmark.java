@@ -0,0 +1,102 @@
+/**
+ * Lookups and ordered iteration over the same catalog held as an RBT, an
+ * off-heap SongStore and a memory mapped SongSnapshot.
+ * Footprint compares their heap use.
+ */
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import songs.RBT;
+import songs.Song;
+import songs.SongSnapshot;
+import songs.SongStore;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StoreBenchmark {
+
+	@Param({"100000", "1000000"})
+	int size;
+
+	private Song[] probes;
+	private int next;
+	private RBT<Song, String> rbt;
+	private SongStore store;
+	private SongSnapshot mapped;
+	private Path file;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		Song[] songs = Data.songs(size, 1);
+		probes = Data.sample(songs, 1 << 16, 2);
+		rbt = new RBT<Song, String>();
+		rbt.putAll(songs, Data.names(songs));
+		store = SongStore.of(rbt);
+		file = Files.createTempFile("songs", ".bin");
+		SongSnapshot.write(rbt, file);
+		mapped = SongSnapshot.map(file);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	private Song probe() {
+		return probes[next++ & (probes.length - 1)];
+	}
+
+	@Benchmark
+	public String rbtGet() {
+		return rbt.get(probe());
+	}
+
+	@Benchmark
+	public String storeGet() {
+		return store.get(probe());
+	}
+
+	@Benchmark
+	public String mappedGet() {
+		return mapped.get(probe());
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void rbtKeys(Blackhole bh) {
+		for (Song song : rbt.keys()) bh.consume(song);
+	}
+
+	/**
+	 * Creates each Song from the columns as it goes.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public void storeKeys(Blackhole bh) {
+		for (Song song : store.keys()) bh.consume(song);
+	}
+
+}
@@ -0,0 +1,133 @@
+/**
+ * GraphTraversal's parallel BFS, hops and components vs single threaded loops.
+ */
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graphs.CSRGraph;
+import graphs.GraphTraversal;
+
+/**
+ * A random graph (graph = random, average degree 8) or a power-law one
+ * (graph = powerLaw, m = 8), as a CSRGraph. sequentialBfs and
+ * sequentialComponents are plain top-down BFS loops over the CSR arrays,
+ * the baseline the engine has to beat. threads = 0 uses the common pool,
+ * set it to the number of cores to measure scaling, for example
+ * -p threads=1,8,32
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx3g")
+public class TraversalBenchmark {
+
+	@Param({"1000000"})
+	int V;
+
+	@Param({"random", "powerLaw"})
+	String graph;
+
+	@Param({"0"})
+	int threads;
+
+	private CSRGraph csr;
+	private ForkJoinPool pool;
+	private GraphTraversal traversal;
+	private int[] sources;
+	private int[] dist;
+	private int[] queue;
+
+	@Setup
+	public void setup() {
+		int[] edges = graph.equals("powerLaw") ? Data.powerLaw(V, 8, 1) : Data.edges(V, 8, 1);
+		CSRGraph.Builder builder = new CSRGraph.Builder(V);
+		for (int e = 0; e < edges.length; e += 2) builder.addEdge(edges[e], edges[e + 1]);
+		csr = builder.build();
+		pool = (threads == 0) ? ForkJoinPool.commonPool() : new ForkJoinPool(threads);
+		traversal = new GraphTraversal(csr, pool);
+		sources = Data.ints(8, V, 2);
+		dist = new int[V];
+		queue = new int[V];
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (pool != ForkJoinPool.commonPool()) pool.shutdown();
+	}
+
+	@Benchmark
+	public int[] sequentialBfs() {
+		Arrays.fill(dist, -1);
+		int head = 0, tail = 0;
+		dist[sources[0]] = 0;
+		queue[tail++] = sources[0];
+		while (head < tail) {
+			int v = queue[head++];
+			for (int i = csr.adjStart(v), end = csr.adjEnd(v); i < end; i++) {
+				int w = csr.target(i);
+				if (dist[w] < 0) {
+					dist[w] = dist[v] + 1;
+					queue[tail++] = w;
+				}
+			}
+		}
+		return dist;
+	}
+
+	@Benchmark
+	public int[] bfs() {
+		return traversal.bfs(sources[0]);
+	}
+
+	@Benchmark
+	public int[] hops() {
+		return traversal.hops(sources);
+	}
+
+	@Benchmark
+	public int[] sequentialComponents() {
+		int[] labels = dist;
+		Arrays.fill(labels, -1);
+		for (int s = 0; s < V; s++) {
+			if (labels[s] >= 0) continue;
+			int head = 0, tail = 0;
+			labels[s] = s;
+			queue[tail++] = s;
+			while (head < tail) {
+				int v = queue[head++];
+				for (int i = csr.adjStart(v), end = csr.adjEnd(v); i < end; i++) {
+					int w = csr.target(i);
+					if (labels[w] < 0) {
+						labels[w] = s;
+						queue[tail++] = w;
+					}
+				}
+			}
+		}
+		return labels;
+	}
+
+	@Benchmark
+	public int[] components() {
+		return traversal.components();
+	}
+
+}
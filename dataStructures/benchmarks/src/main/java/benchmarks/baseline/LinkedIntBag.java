@@ -0,0 +1,62 @@
+/**
+ * The linked list IntBag that graphs.IntBag started from, without
+ * deleteDups and print, kept as a baseline for PowerLawBenchmark.
+ */
+package benchmarks.baseline;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class LinkedIntBag implements Iterable<Integer> {
+
+	private Node head; // current head/first Node in the list
+	private int n; // size of the list (default 0)
+
+	private class Node {
+		int num;
+		Node next;
+	}
+
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	public int size() {
+		return n;
+	}
+
+	public void insert(int num) {
+		Node oldhead = head;
+		head = new Node();
+		head.num = num;
+		head.next = oldhead;
+		n++;
+	}
+
+	public boolean contains(int num) {
+		Node current = head;
+		while (current != null) {
+			if (current.num == num) return true;
+			current = current.next;
+		}
+		return false;
+	}
+
+	public Iterator<Integer> iterator() {
+		return new Iterator<Integer>() {
+			Node current = head;
+
+			public boolean hasNext() {
+				return current != null;
+			}
+
+			public Integer next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				int x = current.num;
+				current = current.next;
+				return x;
+			}
+		};
+	}
+
+}
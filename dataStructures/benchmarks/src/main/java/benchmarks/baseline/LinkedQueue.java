@@ -0,0 +1,52 @@
+/**
+ * The linked list Queue that songs.Queue started from,
+ * kept as a baseline for QueueBenchmark.
+ */
+package benchmarks.baseline;
+
+import java.util.NoSuchElementException;
+
+/**
+ * @param <Item>
+ */
+public class LinkedQueue<Item> {
+
+	private Node front; 		// Node to be first out
+	private Node back; 			// Node to be last out
+	private int n;
+
+	private class Node {
+		Item item;
+		Node next;
+
+		Node(Item item) {
+			this.item = item;
+		}
+	}
+
+	public void enqueue(Item item) {
+		Node oldback = back;
+		back = new Node(item);
+		if (isEmpty()) front = back;
+		else oldback.next = back;
+		n++;
+	}
+
+	public Item dequeue() {
+		if (isEmpty()) throw new NoSuchElementException("Queue underflow");
+		Item item = front.item;
+		front = front.next;
+		if (front == null) back = null;
+		n--;
+		return item;
+	}
+
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	public int size() {
+		return n;
+	}
+
+}
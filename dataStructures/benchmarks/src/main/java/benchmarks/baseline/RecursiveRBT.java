@@ -0,0 +1,105 @@
+/**
+ * The recursive Red-Black Tree get and put that songs.RBT started from,
+ * kept as a baseline for RBTBenchmark.
+ */
+package benchmarks.baseline;
+
+/**
+ * @param <Key>
+ * @param <Value>
+ */
+public class RecursiveRBT<Key extends Comparable<Key>, Value> {
+
+	private Node root;
+	private static final boolean RED = true;
+	private static final boolean BLACK = false;
+
+	private class Node {
+		Key key;
+		Value val;
+		Node left, right;
+		int size;
+		boolean color;
+
+		Node(Key key, Value val, boolean color, int size) {
+			this.key = key;
+			this.val = val;
+			this.color = color;
+			this.size = size;
+		}
+	}
+
+	private boolean isRed(Node x) {
+		if (x == null) return false;
+		return x.color == RED;
+	}
+
+	public Value get(Key key) {
+		return get(root, key);
+	}
+
+	private Value get(Node x, Key key) {
+		if (key == null) throw new IllegalArgumentException("called get() with null key");
+		if (x == null) return null;
+		int cmp = key.compareTo(x.key);
+		if (cmp < 0) return get(x.left, key);
+		else if (cmp > 0) return get(x.right, key);
+		else return x.val;
+	}
+
+	public void put(Key key, Value val) {
+		if (key == null) throw new IllegalArgumentException("first argument to put() is null");
+		root = put(root, key, val);
+		root.color = BLACK;
+	}
+
+	private Node put(Node h, Key key, Value val) {
+		if (h == null) return new Node(key, val, RED, 1);
+		int cmp = key.compareTo(h.key);
+		if (cmp < 0) h.left = put(h.left, key, val);
+		else if (cmp > 0) h.right = put(h.right, key, val);
+		else h.val = val;
+		if (isRed(h.right) && !isRed(h.left)) h = rotateLeft(h);
+		if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+		if (isRed(h.left) && isRed(h.right)) flipColors(h);
+		h.size = size(h.left) + size(h.right) + 1;
+		return h;
+	}
+
+	public int size() {
+		return size(root);
+	}
+
+	private int size(Node x) {
+		return (x == null) ? 0 : x.size;
+	}
+
+	private Node rotateLeft(Node h) {
+		Node x = h.right;
+		h.right = x.left;
+		x.left = h;
+		x.color = h.color;
+		h.color = RED;
+		x.size = h.size;
+		h.size = size(h.left) + size(h.right) + 1;
+		return x;
+	}
+
+	private Node rotateRight(Node h) {
+		Node x = h.left;
+		h.left = x.right;
+		x.right = h;
+		x.color = h.color;
+		h.color = RED;
+		x.size = h.size;
+		h.size = size(h.left) + size(h.right) + 1;
+		return x;
+	}
+
+	private void flipColors(Node h) {
+		h.color = RED;
+		h.left.color = BLACK;
+		h.right.color = BLACK;
+	}
+
+}
@@ -0,0 +1,101 @@
+/**
+ * Tests for AdjacencySet and Graph.hasEdge, checked against a HashSet.
+ */
+package graphs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class AdjacencySetTest {
+
+	private static final int V = 100000; 				// past SMALL_V, so sets up to V / 64 are hash tables
+
+	private static int[] pool(Random random, int size) {
+		int[] pool = new int[size];
+		for (int i = 0; i < size; i++) pool[i] = random.nextInt(V);
+		return pool;
+	}
+
+	private static void assertMatches(Set<Integer> expected, AdjacencySet set, int[] pool) {
+		assertEquals(expected.size(), set.size());
+		for (int v : pool) assertEquals(expected.contains(v), set.contains(v), "vertex " + v);
+	}
+
+	@Test
+	public void hashModeMatchesHashSet() {
+		Random random = new Random(23);
+		int[] pool = pool(random, 600); 					// at most 600 in the set, under V / 64
+		IntBag first = new IntBag();
+		Set<Integer> expected = new HashSet<Integer>();
+		for (int i = 0; i <= AdjacencySet.SMALL; i++) {
+			first.insert(pool[i]);
+			expected.add(pool[i]);
+		}
+		AdjacencySet set = new AdjacencySet(V, first);
+		assertMatches(expected, set, pool);
+		for (int op = 0; op < 50000; op++) {
+			int v = pool[random.nextInt(pool.length)];
+			if (random.nextInt(5) < 2) assertEquals(expected.remove(v), set.remove(v));
+			else assertEquals(expected.add(v), set.add(v));
+			if (op % 500 == 0) assertMatches(expected, set, pool);
+		}
+		for (int v : pool) assertEquals(expected.remove(v), set.remove(v)); 	// empties it one backward shift at a time
+		assertMatches(expected, set, pool);
+	}
+
+	@Test
+	public void growsIntoABitset() {
+		Random random = new Random(64);
+		int[] pool = pool(random, 4000);
+		IntBag first = new IntBag();
+		for (int i = 0; i <= AdjacencySet.SMALL; i++) first.insert(pool[i]);
+		AdjacencySet set = new AdjacencySet(V, first);
+		Set<Integer> expected = new HashSet<Integer>();
+		for (int v : first) expected.add(v);
+		for (int v : pool) assertEquals(expected.add(v), set.add(v)); 	// crosses V / 64
+		assertMatches(expected, set, pool);
+		for (int i = 0; i < pool.length; i += 2) assertEquals(expected.remove(pool[i]), set.remove(pool[i]));
+		assertMatches(expected, set, pool);
+	}
+
+	@Test
+	public void hasEdgeFollowsAddAndRemove() {
+		Random random = new Random(1);
+		Graph g = new Graph(V);
+		int u = 42;
+		int[] pool = pool(random, 300);
+		Map<Integer, Integer> listed = new HashMap<Integer, Integer>(); 	// times v is in u's list
+		for (int op = 0; op < 20000; op++) {
+			int v = pool[random.nextInt(pool.length)];
+			if (random.nextInt(3) == 0) {
+				Integer count = listed.get(v);
+				assertEquals(count != null, g.removeEdge(u, v));
+				if (count != null) {
+					if (count == 1) listed.remove(v);
+					else listed.put(v, count - 1);
+				}
+			} else {
+				g.addEdge(u, v);
+				listed.merge(v, 1, Integer::sum);
+			}
+			if (op % 200 == 0) {
+				for (int w : pool) assertEquals(listed.containsKey(w), g.hasEdge(u, w), "edge 42-" + w);
+			}
+		}
+		int v = pool[0];
+		while (g.removeEdge(u, v)) {} 				// a vertex listed twice is only gone after the last copy
+		assertFalse(g.hasEdge(u, v));
+		g.addEdge(u, v);
+		assertTrue(g.hasEdge(u, v));
+	}
+
+}
@@ -0,0 +1,52 @@
+/**
+ * Tests for CSRGraph and its Builder.
+ */
+package graphs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Scanner;
+
+import org.junit.jupiter.api.Test;
+
+public class CSRGraphTest {
+
+	@Test
+	public void addArcCountsInterleavedPairsOnce() {
+		CSRGraph G = new CSRGraph.Builder(4).addArc(0, 1).addArc(2, 3).addArc(1, 0).addArc(3, 2).build();
+		assertEquals(2, G.E());
+		assertEquals(1, G.degree(0));
+		assertEquals(1, G.degree(3));
+	}
+
+	@Test
+	public void addEdgeAndAddArcMix() {
+		CSRGraph G = new CSRGraph.Builder(3).addEdge(0, 1).addArc(1, 2).addEdge(0, 2).addArc(2, 1).build();
+		assertEquals(3, G.E());
+	}
+
+	@Test
+	public void ofGraphCopiesDegreesAndNames() {
+		Graph G = new Graph(new Scanner("4 4\na b\nb a\nb c\nc b\n"), false);
+		CSRGraph csr = CSRGraph.of(G);
+		assertEquals(G.V(), csr.V());
+		assertEquals(G.E(), csr.E());
+		for (int v = 0; v < G.V(); v++) {
+			assertEquals(G.degree(v), csr.degree(v));
+			if (v < 3) assertEquals(G.state(v), csr.state(v));
+		}
+		assertNull(csr.state(3)); 	// 4 vertices, 3 names
+	}
+
+	@Test
+	public void ofGraphWithoutNames() {
+		Graph G = new Graph(3);
+		G.addEdge(0, 1);
+		G.addEdge(1, 0);
+		CSRGraph csr = CSRGraph.of(G);
+		assertEquals(1, csr.E());
+		assertNull(csr.state(2));
+	}
+
+}
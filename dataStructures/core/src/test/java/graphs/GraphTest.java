@@ -0,0 +1,98 @@
+/**
+ * Tests for Graph's edge counts, degree bins and core numbers.
+ */
+package graphs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class GraphTest {
+
+	// both directions, as Graph input lists them
+	private static void edge(Graph G, int u, int v) {
+		G.addEdge(u, v);
+		G.addEdge(v, u);
+	}
+
+	// K4 on 0 to 3, a tail 0-4-5 and an isolated vertex 6
+	private static Graph fixed() {
+		Graph G = new Graph(7);
+		for (int u = 0; u < 4; u++) {
+			for (int v = u + 1; v < 4; v++) edge(G, u, v);
+		}
+		edge(G, 0, 4);
+		edge(G, 4, 5);
+		return G;
+	}
+
+	@Test
+	public void binsFollowRemoveEdge() {
+		Graph G = fixed();
+		assertEquals(8, G.E());
+		assertEquals(4, G.maxDegree());
+		assertArrayEquals(new int[] {0}, G.vertsDegree(4).toArray());
+		assertArrayEquals(new int[] {3, 2, 1}, G.vertsDegree(3).toArray()); 	// highest vertex first
+		assertArrayEquals(new int[] {4}, G.vertsDegree(2).toArray());
+		assertTrue(G.removeEdge(0, 4));
+		assertEquals(8, G.E()); 							// 4 still lists 0
+		assertTrue(G.removeEdge(4, 0));
+		assertEquals(7, G.E());
+		assertFalse(G.removeEdge(4, 0));
+		assertEquals(3, G.maxDegree());
+		assertEquals(0, G.vertsDegree(4).size());
+		assertArrayEquals(new int[] {3, 2, 1, 0}, G.vertsDegree(3).toArray());
+		assertArrayEquals(new int[] {5, 4}, G.vertsDegree(1).toArray());
+		assertArrayEquals(new int[] {6}, G.vertsDegree(0).toArray());
+		int total = 0;
+		for (int d = 0; d <= G.maxDegree(); d++) {
+			for (int v : G.vertsDegree(d)) {
+				assertEquals(d, G.degree(v));
+				total++;
+			}
+		}
+		assertEquals(G.V(), total);
+	}
+
+	@Test
+	public void selfLoopAddAndRemoveCancel() {
+		Graph G = new Graph(3);
+		G.addEdge(0, 0);
+		assertTrue(G.hasEdge(0, 0));
+		assertEquals(1, G.degree(0));
+		int E = G.E();
+		assertTrue(G.removeEdge(0, 0));
+		assertEquals(E, G.E());
+		assertEquals(0, G.E());
+		assertEquals(0, G.degree(0));
+		assertFalse(G.hasEdge(0, 0));
+		assertEquals(3, G.vertsDegree(0).size());
+	}
+
+	@Test
+	public void coreNumbersAndDegeneracy() {
+		Graph G = fixed();
+		assertArrayEquals(new int[] {3, 3, 3, 3, 1, 1, 0}, G.coreNumbers());
+		assertEquals(3, G.degeneracy());
+		assertArrayEquals(new int[] {0, 1, 2, 3}, G.kCore(2));
+		assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5}, G.kCore(1));
+		assertEquals(0, G.kCore(4).length);
+		edge(G, 4, 1); 									// 4 joins the 2-core
+		assertArrayEquals(new int[] {3, 3, 3, 3, 2, 1, 0}, G.coreNumbers());
+		G.removeEdge(4, 1);
+		G.removeEdge(1, 4);
+		assertArrayEquals(new int[] {3, 3, 3, 3, 1, 1, 0}, G.coreNumbers());
+	}
+
+	@Test
+	public void emptyGraph() {
+		Graph G = new Graph(0);
+		assertEquals(0, G.maxDegree());
+		assertEquals(0, G.degeneracy());
+		assertEquals(0, G.coreNumbers().length);
+	}
+
+}
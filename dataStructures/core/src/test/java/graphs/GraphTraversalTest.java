@@ -0,0 +1,47 @@
+/**
+ * Tests for GraphTraversal, on small pools so tasks really split.
+ */
+package graphs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+public class GraphTraversalTest {
+
+	@Test
+	public void componentsJoinArcsListedOneWay() {
+		CSRGraph G = new CSRGraph.Builder(5).addArc(3, 0).addArc(1, 2).addArc(4, 2).build();
+		int[] labels = new GraphTraversal(G).components();
+		assertArrayEquals(new int[] {0, 1, 1, 0, 1}, labels);
+		assertEquals(2, GraphTraversal.count(labels));
+	}
+
+	@Test
+	public void componentsOfAPathAcrossTasks() {
+		int V = 20000; 						// several ForEachVertex tasks
+		CSRGraph.Builder builder = new CSRGraph.Builder(V);
+		for (int v = 1; v < V; v++) {
+			if (v != V / 2) builder.addEdge(v - 1, v);
+		}
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			int[] labels = new GraphTraversal(builder.build(), pool).components();
+			for (int v = 0; v < V; v++) assertEquals((v < V / 2) ? 0 : V / 2, labels[v]);
+			assertEquals(2, GraphTraversal.count(labels));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void bfsCountsHops() {
+		CSRGraph G = new CSRGraph.Builder(5).addEdge(0, 1).addEdge(1, 2).addEdge(0, 3).build();
+		assertArrayEquals(new int[] {0, 1, 2, 1, -1}, new GraphTraversal(G).bfs(0));
+		assertArrayEquals(new int[] {1, 0, 0, 2, -1}, new GraphTraversal(G).hops(1, 2));
+	}
+
+}
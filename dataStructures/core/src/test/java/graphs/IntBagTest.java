@@ -0,0 +1,98 @@
+/**
+ * Tests for IntBag, iteration order and deleteDups against a naive dedup.
+ */
+package graphs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class IntBagTest {
+
+	private static IntBag bag(int... nums) {
+		IntBag bag = new IntBag();
+		for (int num : nums) bag.insert(num);
+		return bag;
+	}
+
+	// first of each value in iteration order
+	private static int[] naiveDedup(int[] nums) {
+		LinkedHashSet<Integer> seen = new LinkedHashSet<Integer>();
+		for (int num : nums) seen.add(num);
+		int[] a = new int[seen.size()];
+		int i = 0;
+		for (int num : seen) a[i++] = num;
+		return a;
+	}
+
+	@Test
+	public void iteratesNewestFirst() {
+		IntBag bag = bag(1, 2, 3, 2);
+		assertArrayEquals(new int[] { 2, 3, 2, 1 }, bag.toArray());
+		List<Integer> each = new ArrayList<Integer>();
+		bag.forEachInt(each::add);
+		assertEquals(List.of(2, 3, 2, 1), each);
+		PrimitiveIterator.OfInt it = bag.iterator();
+		for (int num : bag.toArray()) assertEquals(num, it.nextInt());
+		assertFalse(it.hasNext());
+		assertArrayEquals(bag.toArray(), new IntBag(bag).toArray());
+	}
+
+	@Test
+	public void deleteRemovesTheNewest() {
+		IntBag bag = bag(5, 1, 5, 2);
+		assertTrue(bag.delete(5));
+		assertArrayEquals(new int[] { 2, 1, 5 }, bag.toArray());
+		assertFalse(bag.delete(7));
+		assertTrue(bag.contains(5));
+		assertTrue(bag.delete(5));
+		assertFalse(bag.contains(5));
+		assertEquals(2, bag.size());
+	}
+
+	@Test
+	public void deleteDupsKeepsTheNewestOfEach() {
+		IntBag bag = bag(1, 2, 1, 3, 2);
+		bag.deleteDups();
+		assertArrayEquals(new int[] { 2, 3, 1 }, bag.toArray());
+		IntBag empty = new IntBag();
+		empty.deleteDups();
+		assertTrue(empty.isEmpty());
+	}
+
+	@Test
+	public void deleteDupsMatchesNaiveOnBothPaths() {
+		Random random = new Random(22);
+		for (int n = 1; n <= 300; n++) {
+			for (int spread : new int[] { 2, 64, 65, 1000 }) { 	// up to 64 takes the bitset, 1000 the sort, 65 either
+				IntBag bag = new IntBag();
+				int base = random.nextInt(2001) - 1000;
+				for (int i = 0; i < n; i++) bag.insert(base + random.nextInt(spread * n));
+				int[] expected = naiveDedup(bag.toArray());
+				bag.deleteDups();
+				assertArrayEquals(expected, bag.toArray(), "n " + n + " spread " + spread);
+			}
+		}
+	}
+
+	@Test
+	public void deleteDupsHandlesTheWholeIntRange() {
+		IntBag bag = bag(Integer.MAX_VALUE, Integer.MIN_VALUE, -1, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, -1);
+		int[] expected = naiveDedup(bag.toArray());
+		bag.deleteDups();
+		assertArrayEquals(expected, bag.toArray());
+		IntBag wide = bag(Integer.MIN_VALUE, Integer.MIN_VALUE + 1, Integer.MIN_VALUE);
+		wide.deleteDups(); 											// range 2, bitset with negative values
+		assertArrayEquals(new int[] { Integer.MIN_VALUE, Integer.MIN_VALUE + 1 }, wide.toArray());
+	}
+
+}
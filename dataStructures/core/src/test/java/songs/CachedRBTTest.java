@@ -0,0 +1,103 @@
+/**
+ * Tests for CachedRBT, read-through, invalidation and what each policy keeps.
+ */
+package songs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class CachedRBTTest {
+
+	@Test
+	public void readsThroughAndInvalidates() {
+		for (CachedRBT.Policy policy : CachedRBT.Policy.values()) {
+			CachedRBT<Integer, String> cache = new CachedRBT<Integer, String>(100, policy);
+			cache.put(1, "a");
+			assertEquals("a", cache.get(1)); 			// miss, walks the tree
+			assertEquals("a", cache.get(1)); 			// hit
+			assertEquals(1, cache.hits());
+			assertEquals(1, cache.misses());
+			cache.put(1, "b");
+			assertEquals("b", cache.get(1));
+			cache.delete(1);
+			assertNull(cache.get(1));
+			assertNull(cache.get(2)); 					// absent keys aren't cached
+			assertEquals(0, cache.cached());
+			assertEquals(1, cache.hits());
+			assertEquals(4, cache.misses());
+		}
+	}
+
+	@Test
+	public void invalidationOnlyDropsTheChangedKey() {
+		CachedRBT<Integer, Integer> cache = new CachedRBT<Integer, Integer>(4096, CachedRBT.Policy.LRU); 	// 16 segments
+		for (int i = 0; i < 1000; i++) cache.put(i, i);
+		for (int i = 0; i < 1000; i++) cache.get(i);
+		assertEquals(1000, cache.cached());
+		cache.put(500, -1);
+		cache.delete(7);
+		assertEquals(998, cache.cached());
+		long hits = cache.hits();
+		for (int i = 0; i < 1000; i++) {
+			if (i != 7) assertEquals(i == 500 ? -1 : i, cache.get(i));
+		}
+		assertEquals(hits + 998, cache.hits()); 		// only 500 walked the tree again
+		cache.clear();
+		assertEquals(0, cache.cached());
+		assertEquals(999, cache.size());
+	}
+
+	// gets of hot keys answered from the cache after one pass over scan new keys
+	private static long hotHitsAfterScan(CachedRBT.Policy policy, int scan) {
+		CachedRBT<Integer, Integer> cache = new CachedRBT<Integer, Integer>(100, policy); 	// one segment
+		List<Integer> hot = new ArrayList<Integer>();
+		for (int i = 0; i < 99; i++) hot.add(i);
+		for (int i = 0; i < 100 + scan; i++) cache.put(i, i);
+		for (int round = 0; round < 5; round++) {
+			for (int key : hot) cache.get(key);
+		}
+		for (int i = 100; i < 100 + scan; i++) assertEquals(i, (int) cache.get(i));
+		assertTrue(cache.cached() <= cache.capacity());
+		long hits = cache.hits();
+		for (int key : hot) cache.get(key);
+		return cache.hits() - hits;
+	}
+
+	@Test
+	public void tinyLfuKeepsFrequentKeysThroughAScan() {
+		assertEquals(0, hotHitsAfterScan(CachedRBT.Policy.LRU, 400));
+		long kept = hotHitsAfterScan(CachedRBT.Policy.TINY_LFU, 400);
+		assertTrue(kept >= 90, "kept " + kept + " of 99 hot keys");
+	}
+
+	@Test
+	public void concurrentGetsNeverCacheAReplacedValue() throws InterruptedException {
+		CachedRBT<Integer, Integer> cache = new CachedRBT<Integer, Integer>(64, CachedRBT.Policy.TINY_LFU);
+		int keys = 32, rounds = 20000;
+		for (int k = 0; k < keys; k++) cache.put(k, 0);
+		Thread writer = new Thread(() -> {
+			for (int r = 1; r <= rounds; r++) cache.put(r % keys, r);
+		});
+		List<Thread> readers = new ArrayList<Thread>();
+		for (int t = 0; t < 3; t++) {
+			readers.add(new Thread(() -> {
+				for (int i = 0; i < rounds; i++) cache.get(i % keys);
+			}));
+		}
+		writer.start();
+		for (Thread reader : readers) reader.start();
+		writer.join();
+		for (Thread reader : readers) reader.join();
+		for (int k = 0; k < keys; k++) {
+			int last = rounds - (rounds - k) % keys; 	// the last r with r % keys == k
+			assertEquals(last, (int) cache.get(k));
+		}
+	}
+
+}
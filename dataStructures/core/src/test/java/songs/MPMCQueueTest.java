@@ -0,0 +1,75 @@
+/**
+ * Tests for MPMCQueue, with several producer and consumer threads.
+ */
+package songs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class MPMCQueueTest {
+
+	@Test
+	public void boundedFifo() {
+		MPMCQueue<Integer> queue = new MPMCQueue<Integer>(3); 	// rounded up to 4
+		assertEquals(4, queue.capacity());
+		for (int i = 0; i < 4; i++) assertTrue(queue.offer(i));
+		assertFalse(queue.offer(4));
+		assertEquals(0, queue.poll());
+		assertTrue(queue.offer(4));
+		for (int i = 1; i <= 4; i++) assertEquals(i, queue.poll());
+		assertNull(queue.poll());
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void producersAndConsumersKeepEveryItem() throws Exception {
+		int producers = 4, consumers = 4, each = 50_000;
+		MPMCQueue<Integer> queue = new MPMCQueue<Integer>(64); 	// small, so threads wait on each other
+		ExecutorService pool = Executors.newFixedThreadPool(producers + consumers);
+		try {
+			List<Future<long[]>> taken = new ArrayList<Future<long[]>>();
+			for (int c = 0; c < consumers; c++) {
+				taken.add(pool.submit(() -> {
+					long count = 0, sum = 0;
+					for (int i = 0; i < each; i++) { 			// producers * each items in all, split evenly
+						int item = queue.take();
+						count++;
+						sum += item;
+					}
+					return new long[] {count, sum};
+				}));
+			}
+			for (int p = 0; p < producers; p++) {
+				int first = p * each;
+				pool.submit(() -> {
+					for (int i = first; i < first + each; i++) queue.put(i);
+					return null;
+				});
+			}
+			long count = 0, sum = 0;
+			for (Future<long[]> f : taken) {
+				long[] r = f.get(60, TimeUnit.SECONDS);
+				count += r[0];
+				sum += r[1];
+			}
+			long n = (long) producers * each;
+			assertEquals(n, count);
+			assertEquals(n * (n - 1) / 2, sum); 				// every item exactly once
+			assertTrue(queue.isEmpty());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+}
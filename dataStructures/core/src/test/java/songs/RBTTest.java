@@ -0,0 +1,257 @@
+/**
+ * Tests for RBT, checked against java.util.TreeMap and RBT.check().
+ */
+package songs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+public class RBTTest {
+
+	private static RBT<Integer, Integer> tree(int n) {
+		RBT<Integer, Integer> rbt = new RBT<Integer, Integer>();
+		for (int i = 0; i < n; i++) rbt.put(i, i);
+		return rbt;
+	}
+
+	// same keys, values and order, and every invariant holds
+	private static void assertMatches(TreeMap<Integer, Integer> expected, RBT<Integer, Integer> rbt) {
+		assertTrue(rbt.check());
+		assertEquals(expected.size(), rbt.size());
+		assertEquals(expected.isEmpty(), rbt.isEmpty());
+		Iterator<Map.Entry<Integer, Integer>> e = expected.entrySet().iterator();
+		for (Integer key : rbt.keys()) {
+			Map.Entry<Integer, Integer> next = e.next();
+			assertEquals(next.getKey(), key);
+			assertEquals(next.getValue(), rbt.get(key));
+		}
+		assertFalse(e.hasNext());
+	}
+
+	@Test
+	public void randomPutsAndDeletesMatchTreeMap() {
+		Random random = new Random(2);
+		RBT<Integer, Integer> rbt = new RBT<Integer, Integer>();
+		TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+		for (int op = 0; op < 3000; op++) {
+			int key = random.nextInt(200);
+			int choice = random.nextInt(10);
+			if (choice < 5) {
+				rbt.put(key, op);
+				expected.put(key, op);
+			} else if (choice < 8) {
+				rbt.delete(key); 						// often absent
+				expected.remove(key);
+			} else if (choice == 8 && !expected.isEmpty()) {
+				rbt.deleteMin();
+				expected.pollFirstEntry();
+			} else if (!expected.isEmpty()) {
+				rbt.deleteMax();
+				expected.pollLastEntry();
+			}
+			assertMatches(expected, rbt);
+		}
+	}
+
+	@Test
+	public void deleteAbsentKeyChangesNothing() {
+		RBT<Integer, Integer> rbt = tree(20);
+		rbt.delete(-1);
+		rbt.delete(20);
+		assertEquals(20, rbt.size());
+		assertTrue(rbt.check());
+		rbt.put(7, null); 								// null value deletes
+		assertNull(rbt.get(7));
+		rbt.delete(7);
+		assertEquals(19, rbt.size());
+		assertTrue(rbt.check());
+	}
+
+	@Test
+	public void deleteFromEmptyTree() {
+		RBT<Integer, Integer> rbt = new RBT<Integer, Integer>();
+		rbt.delete(1);
+		assertTrue(rbt.isEmpty());
+		assertTrue(rbt.check());
+		assertThrows(NoSuchElementException.class, rbt::deleteMin);
+		assertThrows(NoSuchElementException.class, rbt::deleteMax);
+		rbt.put(1, 1);
+		rbt.deleteMin();
+		assertTrue(rbt.isEmpty());
+		assertTrue(rbt.check());
+		assertThrows(IllegalArgumentException.class, () -> rbt.delete(null));
+	}
+
+	@Test
+	public void forEachRemainingStopsAtTheFirstChange() {
+		RBT<Integer, Integer> rbt = tree(100);
+		int[] seen = new int[1];
+		assertThrows(ConcurrentModificationException.class, () -> rbt.spliterator().forEachRemaining(k -> {
+			seen[0]++;
+			if (k == 10) rbt.put(1000 + k, k);
+		}));
+		assertEquals(11, seen[0]); 			// keys 0 to 10, nothing after the put
+	}
+
+	@Test
+	public void forEachRemainingChecksBeforeStarting() {
+		RBT<Integer, Integer> rbt = tree(10);
+		Spliterator<Integer> spliterator = rbt.spliterator();
+		rbt.delete(5);
+		int[] seen = new int[1];
+		assertThrows(ConcurrentModificationException.class, () -> spliterator.forEachRemaining(k -> seen[0]++));
+		assertEquals(0, seen[0]);
+	}
+
+	@Test
+	public void valueChangesAreNotStructural() {
+		RBT<Integer, Integer> rbt = tree(10);
+		int[] sum = new int[1];
+		rbt.spliterator().forEachRemaining(k -> {
+			rbt.put(k, -k);
+			sum[0] += k;
+		});
+		assertEquals(45, sum[0]);
+		assertEquals(-9, rbt.get(9));
+	}
+
+	// 0, 2, 4, ..., 18
+	private static RBT<Integer, Integer> evens() {
+		RBT<Integer, Integer> rbt = new RBT<Integer, Integer>();
+		for (int i = 0; i < 10; i++) rbt.put(2 * i, i);
+		return rbt;
+	}
+
+	@Test
+	public void orderStatisticsOnEmptyTree() {
+		RBT<Integer, Integer> rbt = new RBT<Integer, Integer>();
+		assertEquals(0, rbt.rank(5));
+		assertNull(rbt.floor(5));
+		assertNull(rbt.ceiling(5));
+		assertEquals(0, rbt.size(0, 10));
+		assertThrows(IllegalArgumentException.class, () -> rbt.select(0));
+	}
+
+	@Test
+	public void rankAndSelectAtTheEnds() {
+		RBT<Integer, Integer> rbt = evens();
+		assertEquals(0, rbt.rank(-5)); 				// below the minimum
+		assertEquals(0, rbt.rank(0));
+		assertEquals(5, rbt.rank(9));
+		assertEquals(5, rbt.rank(10));
+		assertEquals(9, rbt.rank(18));
+		assertEquals(10, rbt.rank(100)); 			// above the maximum
+		assertEquals(0, rbt.select(0));
+		assertEquals(18, rbt.select(rbt.size() - 1));
+		assertThrows(IllegalArgumentException.class, () -> rbt.select(rbt.size()));
+		assertThrows(IllegalArgumentException.class, () -> rbt.select(-1));
+		for (int k = 0; k < rbt.size(); k++) assertEquals(k, rbt.rank(rbt.select(k)));
+	}
+
+	@Test
+	public void floorAndCeilingAtTheEnds() {
+		RBT<Integer, Integer> rbt = evens();
+		assertNull(rbt.floor(-1));
+		assertEquals(0, rbt.ceiling(-1));
+		assertEquals(18, rbt.floor(100));
+		assertNull(rbt.ceiling(19));
+		assertEquals(6, rbt.floor(7));
+		assertEquals(8, rbt.ceiling(7));
+		assertEquals(8, rbt.floor(8));
+		assertEquals(8, rbt.ceiling(8));
+	}
+
+	@Test
+	public void rangeSize() {
+		RBT<Integer, Integer> rbt = evens();
+		assertEquals(10, rbt.size(-100, 100));
+		assertEquals(10, rbt.size(0, 18));
+		assertEquals(3, rbt.size(4, 8)); 			// both ends present
+		assertEquals(2, rbt.size(3, 7)); 			// neither end present
+		assertEquals(1, rbt.size(8, 8));
+		assertEquals(0, rbt.size(9, 9));
+		assertEquals(0, rbt.size(8, 4)); 			// lo > hi
+		assertEquals(0, rbt.size(-10, -1)); 		// below the minimum
+		assertEquals(0, rbt.size(19, 30)); 			// above the maximum
+	}
+
+	@Test
+	public void fromSortedEverySizeUpTo70() {
+		for (int n = 0; n <= 70; n++) {
+			Integer[] keys = new Integer[n];
+			Integer[] vals = new Integer[n];
+			TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+			for (int i = 0; i < n; i++) {
+				keys[i] = 3 * i;
+				vals[i] = -i;
+				expected.put(keys[i], vals[i]);
+			}
+			assertMatches(expected, RBT.fromSorted(keys, vals));
+			assertMatches(expected, RBT.fromSorted(expected.entrySet().iterator()));
+		}
+	}
+
+	@Test
+	public void fromSortedRejectsUnsortedAndDuplicateKeys() {
+		assertThrows(IllegalArgumentException.class, () -> RBT.fromSorted(new Integer[] {1, 3, 2}, new Integer[] {1, 3, 2}));
+		assertThrows(IllegalArgumentException.class, () -> RBT.fromSorted(new Integer[] {1, 2, 2}, new Integer[] {1, 2, 2}));
+		assertThrows(IllegalArgumentException.class, () -> RBT.fromSorted(new Integer[] {1, null}, new Integer[] {1, 2}));
+		assertThrows(IllegalArgumentException.class, () -> RBT.fromSorted(new Integer[] {1, 2}, new Integer[] {1}));
+	}
+
+	@Test
+	public void putAllMatchesPutsForEverySizeUpTo70() {
+		Random random = new Random(4);
+		for (int n = 0; n <= 70; n++) {
+			RBT<Integer, Integer> rbt = new RBT<Integer, Integer>();
+			TreeMap<Integer, Integer> expected = new TreeMap<Integer, Integer>();
+			for (int i = 0; i < n; i++) { 				// start from a tree of n keys
+				rbt.put(2 * i, i);
+				expected.put(2 * i, i);
+			}
+			int m = random.nextInt(2 * n + 2);
+			Integer[] keys = new Integer[m];
+			Integer[] vals = new Integer[m];
+			for (int i = 0; i < m; i++) { 				// unsorted, with repeats and deletes
+				keys[i] = random.nextInt(3 * n + 3);
+				vals[i] = (random.nextInt(5) == 0) ? null : 1000 + i;
+				if (vals[i] == null) expected.remove(keys[i]);
+				else expected.put(keys[i], vals[i]);
+			}
+			rbt.putAll(keys, vals);
+			assertMatches(expected, rbt);
+			Arrays.sort(keys); 							// already sorted input skips the sort
+			Integer[] same = new Integer[m];
+			Arrays.fill(same, 7);
+			rbt.putAll(keys, same);
+			for (Integer key : keys) expected.put(key, 7);
+			assertMatches(expected, rbt);
+		}
+	}
+
+	@Test
+	public void rangeSizeIsNotCountedAsAGet() {
+		RBT<Integer, Integer> rbt = evens();
+		RBTMetrics metrics = rbt.enableMetrics();
+		assertEquals(3, rbt.size(4, 8));
+		assertEquals(2, rbt.size(3, 7));
+		assertEquals(0, metrics.getGets());
+		rbt.get(4);
+		assertEquals(1, metrics.getGets());
+	}
+
+}
@@ -0,0 +1,74 @@
+/**
+ * Tests for SPSCQueue.
+ */
+package songs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class SPSCQueueTest {
+
+	@Test
+	public void drainToKeepsOrder() {
+		SPSCQueue<Integer> queue = new SPSCQueue<Integer>(8);
+		for (int i = 0; i < 5; i++) assertTrue(queue.offer(i));
+		List<Integer> drained = new ArrayList<Integer>();
+		assertEquals(3, queue.drainTo(drained::add, 3));
+		assertEquals(List.of(0, 1, 2), drained);
+		assertEquals(2, queue.size());
+	}
+
+	@Test
+	public void drainToConsumesTheItemSinkThrowsOn() {
+		SPSCQueue<Integer> queue = new SPSCQueue<Integer>(8);
+		for (int i = 0; i < 5; i++) assertTrue(queue.offer(i));
+		List<Integer> drained = new ArrayList<Integer>();
+		assertThrows(IllegalStateException.class, () -> queue.drainTo(item -> {
+			if (item == 2) throw new IllegalStateException("sink failed");
+			drained.add(item);
+		}, 5));
+		assertEquals(List.of(0, 1), drained);
+		assertEquals(2, queue.size()); 			// 2 was consumed, 3 and 4 stay
+		assertEquals(3, queue.poll());
+		assertEquals(4, queue.poll());
+		assertNull(queue.poll());
+	}
+
+	@Test
+	public void producerAndConsumerKeepEveryItem() throws Exception {
+		int n = 200_000;
+		SPSCQueue<Integer> queue = new SPSCQueue<Integer>(64);
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			Future<Long> consumer = pool.submit(() -> {
+				long expected = 0;
+				while (expected < n) { 						// in order, one producer
+					int got = queue.take();
+					if (got != expected) throw new AssertionError("expected " + expected + " but took " + got);
+					expected++;
+				}
+				return expected;
+			});
+			pool.submit(() -> {
+				for (int i = 0; i < n; i++) queue.put(i);
+				return null;
+			});
+			assertEquals(n, consumer.get(60, TimeUnit.SECONDS));
+			assertTrue(queue.isEmpty());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Tests for SongCatalog, its indexes checked against filtering every Song.
+ */
+package songs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+
+public class SongCatalogTest {
+
+	private static List<Song> list(Iterable<Song> songs) {
+		List<Song> list = new ArrayList<Song>();
+		for (Song song : songs) list.add(song);
+		return list;
+	}
+
+	// the stored Songs matching test, in order, with their names
+	private static List<String> expected(TreeMap<Song, String> all, Predicate<Song> test) {
+		List<String> names = new ArrayList<String>();
+		for (Song song : all.keySet()) {
+			if (test.test(song)) names.add(song.getName() + "@" + song);
+		}
+		return names;
+	}
+
+	private static List<String> names(Iterable<Song> songs) {
+		List<String> names = new ArrayList<String>();
+		for (Song song : songs) names.add(song.getName() + "@" + song);
+		return names;
+	}
+
+	private static Song random(Random random) {
+		return new Song("n" + random.nextInt(20), "0:" + (10 + random.nextInt(20)), "A" + random.nextInt(8), "" + (2000 + random.nextInt(3)));
+	}
+
+	@Test
+	public void indexesFollowPutsAndDeletes() {
+		Random random = new Random(16);
+		SongCatalog catalog = new SongCatalog();
+		TreeMap<Song, String> all = new TreeMap<Song, String>(); 	// keeps the first Key, as the catalog does
+		for (int op = 0; op < 2000; op++) {
+			Song song = random(random); 						// may equal a stored Song with another name
+			if (random.nextInt(3) == 0) {
+				catalog.delete(song);
+				all.remove(song);
+			} else {
+				catalog.put(song, "v" + op);
+				all.put(song, "v" + op);
+			}
+			if (op % 100 != 0) continue;
+			assertEquals(all.size(), catalog.size());
+			assertEquals(expected(all, s -> true), names(catalog.songs()));
+			String name = "n" + random.nextInt(20), album = "A" + random.nextInt(8);
+			assertEquals(expected(all, s -> s.getName().equals(name)), names(catalog.byName(name)));
+			assertEquals(expected(all, s -> s.getAlbum().equals(album)), names(catalog.byAlbum(album)));
+			int lo = 10 + random.nextInt(20), hi = lo + random.nextInt(10);
+			List<String> lengths = new ArrayList<String>();
+			for (int seconds = lo; seconds <= hi; seconds++) {
+				int s = seconds;
+				lengths.addAll(expected(all, x -> x.getSeconds() == s)); 	// shortest first, then in order
+			}
+			assertEquals(lengths, names(catalog.bySeconds(lo, hi)));
+			assertEquals(lengths.size(), catalog.countBySeconds(lo, hi));
+			TreeSet<String> albums = new TreeSet<String>();
+			for (Song s : all.keySet()) albums.add(s.getAlbum());
+			List<String> listed = new ArrayList<String>();
+			for (String a : catalog.albums()) listed.add(a);
+			assertEquals(new ArrayList<String>(albums), listed);
+			for (Song s : all.keySet()) assertEquals(all.get(s), catalog.get(s));
+		}
+	}
+
+	@Test
+	public void deleteByAnEqualSongWithAnotherName() {
+		SongCatalog catalog = new SongCatalog();
+		catalog.put(new Song("first", "3:00", "Album", "2000"), "x");
+		catalog.put(new Song("second", "3:00", "Album", "2000"), "y"); 	// same Song, keeps "first"
+		assertEquals(1, catalog.size());
+		assertEquals("first", list(catalog.byName("first")).get(0).getName());
+		assertFalse(catalog.byName("second").iterator().hasNext());
+		catalog.delete(new Song("other", "3:00", "Album", "2000"));
+		assertTrue(catalog.isEmpty());
+		assertFalse(catalog.byName("first").iterator().hasNext());
+		assertFalse(catalog.byAlbum("Album").iterator().hasNext());
+		assertFalse(catalog.albums().iterator().hasNext());
+		assertEquals(0, catalog.countBySeconds(0, 1000));
+	}
+
+	@Test
+	public void queriesFailFastWhenTheCatalogChanges() {
+		SongCatalog catalog = new SongCatalog();
+		for (int i = 0; i < 10; i++) catalog.put(new Song("n" + i, "3:0" + i, "Album", "2000"), "v");
+		Iterator<Song> songs = catalog.bySeconds(0, 1000).iterator();
+		songs.next();
+		catalog.put(new Song("new", "5:00", "Other", "2001"), "v");
+		assertThrows(ConcurrentModificationException.class, () -> {
+			while (songs.hasNext()) songs.next();
+		});
+	}
+
+}
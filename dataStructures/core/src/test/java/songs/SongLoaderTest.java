@@ -0,0 +1,81 @@
+/**
+ * Tests for SongLoader, against putting every row in file order.
+ * The expected tree is a TreeMap, since RBT.put runs check() on every put under -ea.
+ */
+package songs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SongLoaderTest {
+
+	private static final int ROWS = 200_000; 		// about 5 MB, several 1 MB ranges
+
+	@TempDir
+	Path dir;
+
+	// rows with many equal keys, so stability across ranges matters
+	private Path catalog(int badRow) throws IOException {
+		Path path = dir.resolve("songs.csv");
+		Random random = new Random(12);
+		try (BufferedWriter out = Files.newBufferedWriter(path)) {
+			for (int r = 0; r < ROWS; r++) {
+				String time = (r == badRow) ? "x:00" : random.nextInt(10) + ":" + (10 + random.nextInt(50));
+				out.write("song " + r + "," + time + ",Album " + random.nextInt(40) + "," + (1990 + random.nextInt(20)) + "\n");
+			}
+		}
+		return path;
+	}
+
+	@Test
+	public void parallelLoadMatchesSequentialPuts() throws IOException {
+		Path path = catalog(-1);
+		TreeMap<Song, String> expected = new TreeMap<Song, String>(); 	// put keeps the first Key and the last value, as RBT.put
+		new SongReader().read(path, song -> expected.put(song, song.getName()));
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			RBT<Song, String> loaded = SongLoader.load(path, pool);
+			assertTrue(loaded.check());
+			assertEquals(expected.size(), loaded.size());
+			Iterator<Map.Entry<Song, String>> e = expected.entrySet().iterator();
+			for (Song song : loaded.keys()) {
+				Map.Entry<Song, String> next = e.next();
+				assertEquals(next.getKey(), song);
+				assertEquals(next.getKey().getName(), song.getName()); 	// the first row of equal Songs keeps its Key
+				assertEquals(next.getValue(), loaded.get(song)); 		// the last row's value wins
+			}
+			assertFalse(e.hasNext());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void badRowReportsItsLineFromAnyRange() throws IOException {
+		int bad = ROWS - 10; 							// in the last range
+		Path path = catalog(bad);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> SongLoader.load(path, pool));
+			assertTrue(e.getMessage().startsWith("line " + (bad + 1) + ":"), e.getMessage());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,78 @@
+/**
+ * Tests for SongReader, on small files written to a temporary directory.
+ */
+package songs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SongReaderTest {
+
+	@TempDir
+	Path dir;
+
+	private Path file(String text) throws IOException {
+		Path path = dir.resolve("songs.csv");
+		Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+		return path;
+	}
+
+	@Test
+	public void quotedFieldsAndLineEndings() throws IOException {
+		// CRLF, a blank line, a quoted field with "" and a line break, no final line break
+		Path path = file("a,1:00,b,2000\r\n\r\n\"x, \"\"y\"\"\nz\",2:05,\"al,bum\",2001\nlast,0:01,c,1999");
+		for (int bufferSize : new int[] {1, 2, 3, 7, 1 << 16}) { 	// rows and quotes split across buffer refills
+			List<Song> songs = new ArrayList<Song>();
+			assertEquals(3, new SongReader(bufferSize).read(path, songs::add));
+			assertEquals("a", songs.get(0).getName());
+			assertEquals("2000", songs.get(0).getYear());
+			assertEquals("x, \"y\"\nz", songs.get(1).getName());
+			assertEquals("al,bum", songs.get(1).getAlbum());
+			assertEquals(125, songs.get(1).getSeconds());
+			assertEquals("last", songs.get(2).getName());
+			assertEquals(1999, songs.get(2).getYearNumber());
+		}
+	}
+
+	@Test
+	public void songsOfAnAlbumShareItsString() throws IOException {
+		Path path = file("a,1:00,Album,2000\nb,2:00,Album,2000\nc,3:00,Other,2000\n");
+		List<Song> songs = new ArrayList<Song>();
+		new SongReader().read(path, songs::add);
+		assertSame(songs.get(0).getAlbum(), songs.get(1).getAlbum());
+	}
+
+	@Test
+	public void badRowsReportTheirLine() throws IOException {
+		SongReader reader = new SongReader();
+		Path missing = file("a,1:00,b,2000\nb,1:00,c\n");
+		IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> reader.read(missing, song -> { }));
+		assertTrue(e.getMessage().startsWith("line 2:"), e.getMessage());
+		Path time = file("a,1:00,b,2000\n\"q\nq\",1:00,c,1\nb,xx,c,2\n"); 	// the quoted line break counts
+		e = assertThrows(IllegalArgumentException.class, () -> reader.read(time, song -> { }));
+		assertTrue(e.getMessage().startsWith("line 4:"), e.getMessage());
+		Path open = file("a,1:00,\"b,2000\n");
+		assertThrows(IllegalArgumentException.class, () -> reader.read(open, song -> { }));
+	}
+
+	@Test
+	public void readsTheBundledCatalog() throws IOException {
+		List<Song> songs = new ArrayList<Song>();
+		assertEquals(104, new SongReader().read(Path.of("../src/songs/songs.csv"), songs::add));
+		assertEquals("\"30 Lives\"", songs.get(0).getName());
+		assertEquals("3:19", songs.get(0).getTime());
+	}
+
+}
@@ -0,0 +1,66 @@
+/**
+ * Tests for SongSnapshot, written and read back through a temporary file.
+ */
+package songs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class SongSnapshotTest {
+
+	@TempDir
+	Path dir;
+
+	// "999" sorts after "1000" as a String but before it as a year
+	private static RBT<Song, String> mixedYears() {
+		RBT<Song, String> rbt = new RBT<Song, String>();
+		String[][] rows = {
+			{"a", "3:00", "Album", "999"},
+			{"b", "3:00", "Album", "1000"},
+			{"c", "2:00", "Other", "99"},
+			{"d", "4:00", "Album", "2013"},
+			{"e", "1:00", "Album", "10000"},
+		};
+		for (String[] row : rows) rbt.put(new Song(row[0], row[1], row[2], row[3]), row[0] + " value");
+		return rbt;
+	}
+
+	@Test
+	public void mappedLookupsFindMixedWidthYears() throws IOException {
+		RBT<Song, String> rbt = mixedYears();
+		Path path = dir.resolve("songs.snapshot");
+		SongSnapshot.write(rbt, path);
+		SongSnapshot snapshot = SongSnapshot.map(path);
+		assertEquals(rbt.size(), snapshot.size());
+		int k = 0;
+		for (Song song : rbt.keys()) {
+			assertTrue(snapshot.contains(song), song.getYear());
+			assertEquals(rbt.get(song), snapshot.get(song));
+			assertEquals(song.getYear(), snapshot.select(k).getYear());
+			assertEquals(rbt.get(song), snapshot.value(k));
+			k++;
+		}
+		assertNull(snapshot.get(new Song("x", "3:00", "Album", "998")));
+		assertNull(snapshot.get(new Song("x", "3:00", "Missing", "999")));
+	}
+
+	@Test
+	public void loadKeepsYearOrder() throws IOException {
+		RBT<Song, String> rbt = mixedYears();
+		Path path = dir.resolve("songs.snapshot");
+		SongSnapshot.write(rbt, path);
+		RBT<Song, String> loaded = SongSnapshot.load(path);
+		assertEquals(rbt.size(), loaded.size());
+		for (Song song : rbt.keys()) assertEquals(rbt.get(song), loaded.get(song));
+		assertEquals("99", loaded.min().getYear());
+		assertEquals("10000", loaded.max().getYear());
+	}
+
+}
@@ -0,0 +1,52 @@
+/**
+ * Tests for SongStore, checked against the RBT it was built from.
+ */
+package songs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class SongStoreTest {
+
+	@Test
+	public void largestYearsKeepOrder() {
+		RBT<Song, String> rbt = new RBT<Song, String>();
+		String[] years = {"1", "999", "1000", "32766", "32767"};
+		for (String year : years) rbt.put(new Song(year, "3:00", "Album", year), year + " value");
+		SongStore store = SongStore.of(rbt);
+		assertEquals(rbt.size(), store.size());
+		int k = 0;
+		for (Song song : rbt.keys()) {
+			assertEquals(rbt.get(song), store.get(song));
+			assertEquals(k, store.rank(song));
+			assertEquals(song.getYear(), store.select(k++).getYear());
+		}
+		assertNull(store.get(new Song("x", "3:00", "Album", "32768")));
+		assertEquals(store.size(), store.rank(new Song("x", "3:00", "Album", "40000")));
+	}
+
+	@Test
+	public void secondsPastMaxDoNotSpillIntoAlbums() {
+		RBT<Song, String> rbt = new RBT<Song, String>();
+		rbt.put(new Song("a", "0:5", "B", "2000"), "a");
+		rbt.put(new Song("z", "0:1", "A", "2000"), "z");
+		SongStore store = SongStore.of(rbt);
+		Song probe = new Song("p", "279620:21", "A", "2000"); 	// 2^24 + 5 seconds
+		assertNull(rbt.get(probe));
+		assertNull(store.get(probe));
+		assertFalse(store.contains(probe));
+		assertEquals(rbt.rank(probe), store.rank(probe));
+		assertEquals(1, store.rank(probe)); 						// after all of album A, before B
+	}
+
+	@Test
+	public void rejectsYearsPastMax() {
+		SongStore.Builder builder = new SongStore.Builder();
+		assertThrows(IllegalArgumentException.class, () -> builder.add(new Song("x", "3:00", "Album", "32768"), "x"));
+	}
+
+}
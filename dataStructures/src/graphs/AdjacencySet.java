@@ -0,0 +1,127 @@
+/**
+ * Set of the vertices adjacent to one vertex, for O(1) edge checks in Graph
+ */
+package graphs;
+
+import java.util.Arrays;
+
+/**
+ * Graph only builds one for vertices with more than SMALL neighbours,
+ * smaller adjacency lists are scanned in their IntBag, which is as fast.
+ * Vertices are ints in [0, V), held in
+ *  - a bitset of V bits when V is small, or once the set holds more than
+ *    V / 64 vertices, so the bitset is no larger than the hash table it replaces
+ *  - otherwise an open addressing hash table with linear probing, at most half full
+ * Removing a vertex never shrinks the set or turns a bitset back into a table.
+ */
+final class AdjacencySet {
+
+	static final int SMALL = 16; 					// largest adjacency list Graph scans instead
+	private static final int SMALL_V = 1024; 		// V up to this is always a bitset, 128 bytes or less
+	private static final int FREE = -1; 			// empty slot in the hash table
+
+	private final int V;
+	private int size;
+	private int[] table; 							// hash table, null once a bitset
+	private long[] bits; 							// bitset, null until used
+
+	/**
+	 * @param V
+	 * @param nums the adjacency list so far
+	 */
+	AdjacencySet(int V, IntBag nums) {
+		this.V = V;
+		if (V <= SMALL_V || nums.size() > V / 64) bits = new long[(V + 63) >>> 6];
+		else {
+			table = new int[Integer.highestOneBit(4 * nums.size() - 1) << 1]; 	// at most a quarter full
+			Arrays.fill(table, FREE);
+		}
+		for (int v : nums) add(v);
+	}
+
+	int size() {
+		return size;
+	}
+
+	boolean contains(int v) {
+		if (bits != null) return (bits[v >>> 6] & (1L << v)) != 0;
+		int mask = table.length - 1;
+		for (int i = hash(v) & mask; table[i] != FREE; i = (i + 1) & mask) {
+			if (table[i] == v) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @param v
+	 * @return true if v was not already in the set
+	 */
+	boolean add(int v) {
+		if (contains(v)) return false;
+		if (bits == null) {
+			if (size + 1 > V / 64) toBits();
+			else if (2 * (size + 1) > table.length) toTable(2 * table.length);
+		}
+		if (bits != null) bits[v >>> 6] |= 1L << v;
+		else insert(table, v);
+		size++;
+		return true;
+	}
+
+	/**
+	 * @param v
+	 * @return true if v was in the set
+	 */
+	boolean remove(int v) {
+		if (!contains(v)) return false;
+		size--;
+		if (bits != null) {
+			bits[v >>> 6] &= ~(1L << v);
+			return true;
+		}
+		int mask = table.length - 1;
+		int i = hash(v) & mask;
+		while (table[i] != v) i = (i + 1) & mask;
+		// backward shift deletion: move later entries of the run into the gap
+		// when their home slot is not between the gap and them
+		for (int j = (i + 1) & mask; table[j] != FREE; j = (j + 1) & mask) {
+			int home = hash(table[j]) & mask;
+			if (((j - home) & mask) >= ((j - i) & mask)) {
+				table[i] = table[j];
+				i = j;
+			}
+		}
+		table[i] = FREE;
+		return true;
+	}
+
+	private void toBits() {
+		bits = new long[(V + 63) >>> 6];
+		for (int v : table) {
+			if (v != FREE) bits[v >>> 6] |= 1L << v;
+		}
+		table = null;
+	}
+
+	private void toTable(int capacity) {
+		int[] t = new int[capacity];
+		Arrays.fill(t, FREE);
+		for (int v : table) {
+			if (v != FREE) insert(t, v);
+		}
+		table = t;
+	}
+
+	private static void insert(int[] table, int v) {
+		int mask = table.length - 1;
+		int i = hash(v) & mask;
+		while (table[i] != FREE) i = (i + 1) & mask;
+		table[i] = v;
+	}
+
+	private static int hash(int v) {
+		int h = v * 0x9E3779B9; 					// Fibonacci hashing, spreads consecutive vertices
+		return h ^ (h >>> 16);
+	}
+
+}
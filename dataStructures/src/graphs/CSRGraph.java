@@ -0,0 +1,295 @@
+/**
+ * Immutable Graph in Compressed Sparse Row form, built with CSRGraph.Builder.
+ * Same V(), E(), degree() and adj() API as Graph, plus adjacency as ints.
+ */
+package graphs;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Every adjacency list is a slice of one int array, targets:
+ * the neighbours of v are targets[offsets[v]] to targets[offsets[v + 1] - 1].
+ * Two arrays in all, so no Node per edge and neighbours of a vertex are
+ * contiguous in memory. An edge costs 8 bytes, 4 for each direction.
+ *
+ * As in Graph, each undirected edge is stored in both directions and E()
+ * counts it once. Limited to 2^31 - 1 directed edges, one int array.
+ */
+public class CSRGraph {
+	private final int V; 				// number of vertices
+	private final int E; 				// number of edges
+	final int[] offsets; 				// V + 1 entries, start of each adjacency list in targets
+	final int[] targets; 				// adjacency lists, one after the other
+	private final String[] states; 		// names of vertices, null if unnamed
+	private final HashMap<String, Integer> indexes;
+
+	private CSRGraph(int V, int E, int[] offsets, int[] targets, String[] states) {
+		this.V = V;
+		this.E = E;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.states = states;
+		if (states == null) indexes = null;
+		else {
+			indexes = new HashMap<String, Integer>(2 * V);
+			for (int v = 0; v < V; v++) {
+				if (states[v] != null) indexes.putIfAbsent(states[v], v);
+			}
+		}
+	}
+
+	/**
+	 * Copies G and its vertex names, each adjacency list in the order G.adj(v) returns it.
+	 * @param G
+	 * @return
+	 */
+	public static CSRGraph of(Graph G) {
+		if (G == null) throw new IllegalArgumentException("G is null");
+		int[] offsets = new int[G.V() + 1];
+		for (int v = 0; v < G.V(); v++) offsets[v + 1] = Math.addExact(offsets[v], G.degree(v));
+		int[] targets = new int[offsets[G.V()]];
+		for (int v = 0; v < G.V(); v++) {
+			int i = offsets[v];
+			for (int w : G.adj(v)) targets[i++] = w;
+		}
+		String[] states = new String[G.V()];
+		for (int v = 0; v < G.named(); v++) states[v] = G.state(v); 	// names may stop short of V
+		return new CSRGraph(G.V(), G.E(), offsets, targets, states);
+	}
+
+	/**
+	 * @return the number of vertices in CSRGraph
+	 */
+	public int V() {
+		return V;
+	}
+
+	/**
+	 * @return the number of edges in CSRGraph
+	 */
+	public int E() {
+		return E;
+	}
+
+	/**
+	 * @param v
+	 * @return the degree of vertex v
+	 */
+	public int degree(int v) {
+		validateVertex(v);
+		return offsets[v + 1] - offsets[v];
+	}
+
+	/**
+	 * Boxes each neighbour, like Graph.adj. Use adjIterator or forEachAdj
+	 * to read ints.
+	 * @param v
+	 * @return the vertices adjacent to v
+	 */
+	public Iterable<Integer> adj(int v) {
+		validateVertex(v);
+		return () -> adjIterator(v);
+	}
+
+	/**
+	 * @param v
+	 * @return an iterator over the vertices adjacent to v, nextInt() does not box
+	 */
+	public PrimitiveIterator.OfInt adjIterator(int v) {
+		validateVertex(v);
+		return new IntIterator(offsets[v], offsets[v + 1]);
+	}
+
+	/**
+	 * Calls action on each vertex adjacent to v, without boxing.
+	 * @param v
+	 * @param action
+	 */
+	public void forEachAdj(int v, IntConsumer action) {
+		validateVertex(v);
+		for (int i = offsets[v], end = offsets[v + 1]; i < end; i++) action.accept(targets[i]);
+	}
+
+	/**
+	 * The neighbours of v are target(adjStart(v)) to target(adjEnd(v) - 1).
+	 * @param v
+	 * @return
+	 */
+	public int adjStart(int v) {
+		validateVertex(v);
+		return offsets[v];
+	}
+
+	/**
+	 * @param v
+	 * @return one past the last index of v's neighbours, see adjStart
+	 */
+	public int adjEnd(int v) {
+		validateVertex(v);
+		return offsets[v + 1];
+	}
+
+	/**
+	 * @param i between adjStart(v) and adjEnd(v) - 1 for some v
+	 * @return
+	 */
+	public int target(int i) {
+		return targets[i];
+	}
+
+	/**
+	 * @param v
+	 * @return a copy of the vertices adjacent to v
+	 */
+	public int[] adjArray(int v) {
+		validateVertex(v);
+		return Arrays.copyOfRange(targets, offsets[v], offsets[v + 1]);
+	}
+
+	/**
+	 * @param state - the name of the vertex
+	 * @return the index of the vertex, -1 if there is none
+	 */
+	public int index(String state) {
+		if (indexes == null) return -1;
+		Integer v = indexes.get(state);
+		return (v == null) ? -1 : v;
+	}
+
+	/**
+	 * @param v - vertex (index) in CSRGraph
+	 * @return the name of v, null if it has none
+	 */
+	public String state(int v) {
+		validateVertex(v);
+		return (states == null) ? null : states[v];
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= V) throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
+	}
+
+	private class IntIterator implements PrimitiveIterator.OfInt {
+		private int i;
+		private final int end;
+
+		IntIterator(int start, int end) {
+			this.i = start;
+			this.end = end;
+		}
+
+		public boolean hasNext() {
+			return i < end;
+		}
+
+		// an iterator, doesn't implement remove() since it's optional
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		public int nextInt() {
+			if (!hasNext()) throw new NoSuchElementException();
+			return targets[i++];
+		}
+	}
+
+	/**
+	 * Collects edges in two int arrays, then sorts them into CSR form with a
+	 * counting sort by source vertex, O(V + E). Adjacency lists keep the
+	 * order edges were added in.
+	 */
+	public static class Builder {
+		private final int V;
+		private int[] from = new int[16], to = new int[16]; 	// one entry per directed edge
+		private int arcs; 									// directed edges added
+		private int edges; 									// edges added by addEdge
+		private int halves; 								// directed edges added by addArc
+		private String[] states;
+		private boolean built;
+
+		/**
+		 * @param V number of vertices
+		 */
+		public Builder(int V) {
+			if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
+			this.V = V;
+		}
+
+		/**
+		 * Adds the undirected edge u-v, stored in both directions.
+		 * @param u
+		 * @param v
+		 * @return this Builder
+		 */
+		public Builder addEdge(int u, int v) {
+			arc(u, v);
+			arc(v, u);
+			edges++;
+			return this;
+		}
+
+		/**
+		 * Adds v to u's adjacency list only, like Graph.addEdge, for input
+		 * that lists every edge in both directions, in any order. E() counts
+		 * two arcs as one edge, so input that is not symmetric gets a wrong E().
+		 * @param u
+		 * @param v
+		 * @return this Builder
+		 */
+		public Builder addArc(int u, int v) {
+			arc(u, v);
+			halves++;
+			return this;
+		}
+
+		/**
+		 * Names vertex v, for CSRGraph.state and CSRGraph.index.
+		 * @param v
+		 * @param state
+		 * @return this Builder
+		 */
+		public Builder name(int v, String state) {
+			if (built) throw new IllegalStateException("CSRGraph already built");
+			if (v < 0 || v >= V) throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
+			if (states == null) states = new String[V];
+			states[v] = state;
+			return this;
+		}
+
+		private void arc(int u, int v) {
+			if (built) throw new IllegalStateException("CSRGraph already built");
+			if (u < 0 || u >= V) throw new IllegalArgumentException("vertex " + u + " is not between 0 and " + (V - 1));
+			if (v < 0 || v >= V) throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
+			if (arcs == from.length) {
+				if (arcs == Integer.MAX_VALUE - 8) throw new IllegalStateException("more than " + arcs + " directed edges");
+				int capacity = (int) Math.min(2L * arcs, Integer.MAX_VALUE - 8);
+				from = Arrays.copyOf(from, capacity);
+				to = Arrays.copyOf(to, capacity);
+			}
+			from[arcs] = u;
+			to[arcs++] = v;
+		}
+
+		/**
+		 * The Builder cannot be used afterwards.
+		 * @return
+		 */
+		public CSRGraph build() {
+			if (built) throw new IllegalStateException("CSRGraph already built");
+			built = true;
+			int[] offsets = new int[V + 1];
+			for (int i = 0; i < arcs; i++) offsets[from[i] + 1]++; 		// count, one slot ahead
+			for (int v = 0; v < V; v++) offsets[v + 1] += offsets[v]; 	// prefix sums
+			int[] next = Arrays.copyOf(offsets, V); 						// next free slot of each list
+			int[] targets = new int[arcs];
+			for (int i = 0; i < arcs; i++) targets[next[from[i]]++] = to[i];
+			from = to = null; 											// let the edge list go
+			return new CSRGraph(V, edges + halves / 2, offsets, targets, states);
+		}
+	}
+
+}
@@ -21,7 +21,7 @@ public class Driver {
         	in = new Scanner(file); 						
         	Graph G = new Graph(in);						
     		
-    		for (int d = G.V()-1; d >= 0; d--) {  
+    		for (int d = G.maxDegree(); d >= 0; d--) {  
     			if(!G.vertsDegree(d).isEmpty()) {
     				System.out.println("States with " + d + " Neighbor(s)");
     				for (int x: G.vertsDegree(d)) {
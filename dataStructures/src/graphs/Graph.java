@@ -3,7 +3,8 @@
  */
 package graphs;
 
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
 
@@ -16,10 +17,16 @@ import java.util.Scanner;
 public class Graph {	
 	private final int V; 				// number of vertices
 	private int E;						// number of edges
-	private ArrayList<String> states;	// names of vertices
+	private String[] states;			// names of vertices, by index
+	private HashMap<String, Integer> indexes; // index of each name
+	private int named;					// number of names, the first named vertices have one
 	private IntBag[] adj;				// holds indices of sates adjacent to state w/ array index
-	private int[] degrees;
-	private IntBag[] degreebags;
+	private AdjacencySet[] adjsets;		// the same indices as a set, for vertices with more than AdjacencySet.SMALL
+	private int[] degrees;				// size of each adjacency list
+	// vertices grouped by degree, kept up to date by addEdge and removeEdge
+	private int[] verts;				// vertices in order of degree
+	private int[] pos;					// position of each vertex in verts
+	private int[] bins;					// bins[d] is the first position of degree d in verts, V past the largest degree
 	
 	/**
 	 * Constructs an empty graph with
@@ -29,14 +36,14 @@ public class Graph {
 		if (V < 0) throw new IllegalArgumentException("Number of vertices must be nonnegative");
 		this.V = V;
 		this.E = 0;
-		states = (ArrayList<String>) new ArrayList<String>(V);
+		states = new String[V];
+		indexes = new HashMap<String, Integer>();
 		adj = (IntBag[]) new IntBag[V];
-		degreebags = (IntBag[]) new IntBag[V];
-		degrees = new int[V];
+		adjsets = new AdjacencySet[V];
 		for (int v = 0; v < V; v++) {
 	    	adj[v] = new IntBag();
-	    	degreebags[v] = new IntBag();
 	    }
+		initDegrees();
 	}	
 	
 	/**
@@ -57,65 +64,127 @@ public class Graph {
 	 * Next 2E lines are edges listed in each direction.
 	 */
 	public Graph(Scanner in) {
+		this(in, false);
+	}
+
+	/**
+	 * Constructs a Graph object from a file that is made into a Scanner, see Graph(Scanner).
+	 * Names are kept in a hash map, so reading is O(V + E).
+	 * @param in - comes from a file with a specific structure
+	 * @param intern - intern vertex names with String.intern(), so they are
+	 * 	shared with equal Strings elsewhere in the program
+	 */
+	public Graph(Scanner in, boolean intern) {
 		if (in == null) throw new IllegalArgumentException("in is null");
 		try {
         	V = in.nextInt();
-    		states = (ArrayList<String>) new ArrayList<String>(V);
+    		states = new String[V];
+    		indexes = new HashMap<String, Integer>((int) Math.min(2L * V, Integer.MAX_VALUE - 8));
     		adj = (IntBag[]) new IntBag[V];
-    		degreebags = (IntBag[]) new IntBag[V];
-    		degrees = new int[V];
+    		adjsets = new AdjacencySet[V];
     		for (int v = 0; v < V; v++) {
     	    	adj[v] = new IntBag();
-    	    	degreebags[v] = new IntBag();
     	    }
+    		initDegrees();
     		int edgelines = in.nextInt();
     		for (int e = 0; e < edgelines; e++) {
-    			String state1 = in.next();		// left name (from vertex)
-    			if (!states.contains(state1)) { // not already added to ArrayList states
-        			states.add(state1);			// add it
-    			}
-    			String state2 = in.next();		// right name (to vertex)
-    			if (!states.contains(state2)) {
-        			states.add(state2);
-    			}
+    			int u = symbol(in.next(), intern);	// left name (from vertex)
+    			int v = symbol(in.next(), intern);	// right name (to vertex)
     			// an edge is added for each line of input 
     			// may seem like a directed edge and that we are double adding edges
     			// see addEdge comments
-            	addEdge(states.indexOf(state1), states.indexOf(state2)); 
+            	addEdge(u, v); 
         	}															
-    		for (int v = 0; v < V; v++) {
-    			degrees[v] = adj[v].size();
-    			degreebags[degrees[v]].insert(v);
-    		}
 		} catch (NoSuchElementException e) {
 			throw new IllegalArgumentException("Input file must conform to graph input structure.", e);
 		}
 	}
 	
 	/**
-	 * Creates a copy of an already formed
+	 * Creates a copy of an already formed Graph, names and adjacency order included
 	 * @param G - Graph object
 	 */
 	public Graph(Graph G) {
+		if (G == null) throw new IllegalArgumentException("G is null");
 		V = G.V();
 		E = G.E();
-		states = (ArrayList<String>) new ArrayList<String>(V);
+		states = Arrays.copyOf(G.states, V);
+		indexes = new HashMap<String, Integer>(G.indexes);
+		named = G.named;
 		adj = (IntBag[]) new IntBag[V];
-		degrees = new int[V];
+		adjsets = new AdjacencySet[V];
 		for (int v = 0; v < V; v++) {
-	    	adj[v] = new IntBag();
-	    }
-		for (int v = 0; v < V; v++) {
-			for (int w : G.adj[v]) {
-				adj[v].insert(w);
-			}
+	    	adj[v] = new IntBag(G.adj[v]);
+			if (adj[v].size() > AdjacencySet.SMALL) adjsets[v] = new AdjacencySet(V, adj[v]);
 		}
+		degrees = G.degrees.clone();
+		verts = G.verts.clone();
+		pos = G.pos.clone();
+		bins = G.bins.clone();
+	}
+
+	// every vertex in the bin of degree 0
+	private void initDegrees() {
+		degrees = new int[V];
+		verts = new int[V];
+		pos = new int[V];
 		for (int v = 0; v < V; v++) {
-			degrees[v] = adj[v].size();
-			degreebags[degrees[v]].insert(v);
-		}															
+			verts[v] = v;
+			pos[v] = v;
+		}
+		bins = new int[] {0, V};
+	}
+
+	/**
+	 * Moves v from the bin of its degree d to the bin of d + 1, O(1):
+	 * swaps v with the last vertex of bin d, which then starts bin d + 1.
+	 */
+	private void incrementDegree(int v) {
+		int d = degrees[v];
+		if (d + 2 >= bins.length) {
+			int old = bins.length;
+			bins = Arrays.copyOf(bins, Math.max(d + 3, 2 * old));
+			Arrays.fill(bins, old, bins.length, V);
+		}
+		swap(v, verts[bins[d + 1] - 1]);
+		bins[d + 1]--;
+		degrees[v]++;
+	}
+
+	/**
+	 * Moves v from the bin of its degree d to the bin of d - 1, O(1):
+	 * swaps v with the first vertex of bin d, which then ends bin d - 1.
+	 */
+	private void decrementDegree(int v) {
+		int d = degrees[v];
+		swap(v, verts[bins[d]]);
+		bins[d]++;
+		degrees[v]--;
+	}
+
+	private void swap(int v, int w) {
+		int pv = pos[v], pw = pos[w];
+		verts[pv] = w;
+		pos[w] = pv;
+		verts[pw] = v;
+		pos[v] = pw;
 	}
 	
+	/**
+	 * @param state - the name of a vertex
+	 * @param intern
+	 * @return the index of state, the next unused index if it is new
+	 */
+	private int symbol(String state, boolean intern) {
+		Integer v = indexes.get(state);
+		if (v != null) return v;
+		if (named == V) throw new IllegalArgumentException("more than " + V + " vertex names");
+		if (intern) state = state.intern();
+		states[named] = state;
+		indexes.put(state, named);
+		return named++;
+	}
+
 	/**
 	 * Adds an edge from u to v (not from v to u).
 	 * @param u is the index in the array of Bags
@@ -127,8 +196,51 @@ public class Graph {
 	 */
 	public void addEdge(int u, int v) {
 		adj[u].insert(v); // inserts v into u's adjacency list
+		if (adjsets[u] != null) adjsets[u].add(v);
+		else if (adj[u].size() > AdjacencySet.SMALL) adjsets[u] = new AdjacencySet(V, adj[u]);
+		incrementDegree(u);
 		// adj[v].insert(u); // this would be a mistake since graph input lists edges in both directions
-		if (!adj[v].contains(u)) E++;
+		if (!contains(v, u)) E++;
+	}
+
+	/**
+	 * Removes v from u's adjacency list (not u from v's), undoing addEdge(u, v).
+	 * The edge stops counting in E once it is gone in both directions.
+	 * O(degree of u) for the list, O(1) for the degree bins.
+	 * @param u
+	 * @param v
+	 * @return false if v was not in u's adjacency list
+	 */
+	public boolean removeEdge(int u, int v) {
+		validateVertex(u);
+		validateVertex(v);
+		boolean reverse = contains(v, u); 	// checked with v still listed, as addEdge checks after listing it, so self-loops cancel
+		if (!adj[u].delete(v)) return false;
+		if (adjsets[u] != null && !adj[u].contains(v)) adjsets[u].remove(v); 	// v may be listed twice
+		decrementDegree(u);
+		if (!reverse) E--;
+		return true;
+	}
+
+	/**
+	 * O(1) expected, scans at most AdjacencySet.SMALL vertices or looks up an AdjacencySet.
+	 * @param u
+	 * @param v
+	 * @return true if v is in u's adjacency list, an edge from u to v was added
+	 */
+	public boolean hasEdge(int u, int v) {
+		validateVertex(u);
+		validateVertex(v);
+		return contains(u, v);
+	}
+
+	// is v in u's adjacency list
+	private boolean contains(int u, int v) {
+		return (adjsets[u] != null) ? adjsets[u].contains(v) : adj[u].contains(v);
+	}
+
+	private void validateVertex(int v) {
+		if (v < 0 || v >= V) throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
 	}
 	
 	/**
@@ -153,8 +265,98 @@ public class Graph {
 		return degrees[v];
 	}
 	
+	/**
+	 * A snapshot of the vertices of degree d, kept up to date as edges are
+	 * added and removed. Iterates from the highest vertex index down, as it
+	 * always has. Bins are unordered, so k vertices are put in order by
+	 * sorting, O(k log k), or for k of at least V / 64 through a bitset, O(k).
+	 * @param d
+	 * @return the vertices with d adjacent vertices
+	 */
 	public IntBag vertsDegree(int d) {
-		return degreebags[d];
+		if (d < 0) throw new IllegalArgumentException("degree must be nonnegative");
+		IntBag bag = new IntBag();
+		if (d + 1 >= bins.length) return bag;
+		int from = bins[d], to = bins[d + 1];
+		if (64L * (to - from) >= V) {
+			long[] bits = new long[(V + 63) >>> 6];
+			for (int i = from; i < to; i++) bits[verts[i] >>> 6] |= 1L << verts[i];
+			for (int w = 0; w < bits.length; w++) {
+				for (long b = bits[w]; b != 0; b &= b - 1) bag.insert((w << 6) + Long.numberOfTrailingZeros(b));
+			}
+		} else {
+			int[] a = Arrays.copyOfRange(verts, from, to);
+			Arrays.sort(a);
+			for (int v : a) bag.insert(v);
+		}
+		return bag;
+	}
+
+	/**
+	 * @return the largest degree of any vertex, 0 if there are none
+	 */
+	public int maxDegree() {
+		return (V == 0) ? 0 : degrees[verts[V - 1]];
+	}
+
+	/**
+	 * Core numbers by the Batagelj-Zaversnik algorithm, O(V + E): the core
+	 * number of v is the largest k such that v belongs to a subgraph where
+	 * every vertex has degree at least k. Starts from the degree bins and
+	 * repeatedly removes a vertex of least remaining degree.
+	 * Degrees count adjacency list entries, so repeated edges count twice.
+	 * @return the core number of each vertex
+	 */
+	public int[] coreNumbers() {
+		int[] core = degrees.clone();
+		int[] vert = verts.clone();
+		int[] p = pos.clone();
+		int[] bin = bins.clone();
+		for (int i = 0; i < V; i++) {
+			int v = vert[i]; 								// least remaining degree, its core number is final
+			for (int u : adj[v]) {
+				if (core[u] > core[v]) { 					// move u down a bin
+					int du = core[u], pu = p[u], pw = bin[du], w = vert[pw];
+					if (u != w) {
+						vert[pu] = w;
+						p[w] = pu;
+						vert[pw] = u;
+						p[u] = pw;
+					}
+					bin[du]++;
+					core[u]--;
+				}
+			}
+		}
+		return core;
+	}
+
+	/**
+	 * @return the largest core number, the smallest k such that every
+	 * 	subgraph has a vertex of degree at most k
+	 */
+	public int degeneracy() {
+		int max = 0;
+		for (int c : coreNumbers()) max = Math.max(max, c);
+		return max;
+	}
+
+	/**
+	 * @param k
+	 * @return the vertices of the k-core, those with core number at least k, in increasing order
+	 */
+	public int[] kCore(int k) {
+		int[] core = coreNumbers();
+		int n = 0;
+		for (int v = 0; v < V; v++) {
+			if (core[v] >= k) n++;
+		}
+		int[] a = new int[n];
+		n = 0;
+		for (int v = 0; v < V; v++) {
+			if (core[v] >= k) a[n++] = v;
+		}
+		return a;
 	}
 		
 	/**
@@ -168,10 +370,11 @@ public class Graph {
 
 	/**
 	 * @param state - the name of the vertex
-	 * @return the index of the vertex in ArrayList states
+	 * @return the index of the vertex, -1 if there is none
 	 */
 	public int index(String state) {
-		return states.indexOf(state);
+		Integer v = indexes.get(state);
+		return (v == null) ? -1 : v;
 	}
 	
 	/**
@@ -179,7 +382,15 @@ public class Graph {
 	 * @return
 	 */
 	public String state(int v) {
-		return states.get(v);
+		if (v < 0 || v >= named) throw new IndexOutOfBoundsException("vertex " + v + " has no name");
+		return states[v];
+	}
+	
+	/**
+	 * @return the number of named vertices, vertices 0 to named() - 1 have a state
+	 */
+	int named() {
+		return named;
 	}
 	
 	/**
@@ -188,10 +399,10 @@ public class Graph {
 	public void print() {
 		System.out.printf("%20s: %s%n", "Number of vertices", V);
 		System.out.printf("%20s: %s%n", "Number of edges", E);
-		for (String state: states) {
-			System.out.printf("%20s: ", state);
-			for (int i: adj[states.indexOf(state)]) {
-				System.out.printf("%15s",states.get(i));
+		for (int v = 0; v < named; v++) {
+			System.out.printf("%20s: ", states[v]);
+			for (int i: adj[v]) {
+				System.out.printf("%15s",states[i]);
 			}
 			System.out.println();
 		}
@@ -0,0 +1,375 @@
+/**
+ * Parallel breadth first search, hop distances and connected components
+ * over the int adjacency of a CSRGraph, run on a ForkJoinPool.
+ */
+package graphs;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/**
+ * Breadth first search is level synchronous and direction optimizing
+ * (Beamer, Asanovic and Patterson). While the frontier is small, each
+ * level is a top-down step: frontier vertices, split across tasks, claim
+ * unvisited neighbours with a compare-and-set on a visited bitset. Once
+ * the frontier's edges outnumber the unexplored edges / ALPHA, levels
+ * switch to bottom-up steps: each task owns a range of bitset words and
+ * every unvisited vertex in it looks for a neighbour in the frontier
+ * bitset, stopping at the first, with no atomic writes. Levels go back to
+ * top-down when the frontier shrinks below V / BETA.
+ *
+ * Bottom-up steps read adjacency lists as incoming edges, so the graph
+ * must list every edge in both directions, as Graph input and
+ * CSRGraph.Builder.addEdge do.
+ *
+ * Connected components use a lock-free union-find: each edge links the
+ * larger root below the smaller with a compare-and-set, finds halve paths.
+ * Every arc is unioned, so components do not need edges in both directions.
+ *
+ * Results are the same for any pool, only the work is shared differently.
+ */
+public class GraphTraversal {
+
+	private static final int ALPHA = 15; 			// switch to bottom-up when frontier edges > unexplored edges / ALPHA
+	private static final int BETA = 18; 			// back to top-down when the frontier has fewer than V / BETA vertices
+	private static final int VERTEX_GRAIN = 2048; 	// vertices per task
+	private static final int WORD_GRAIN = 64; 		// bitset words per task, 4096 vertices
+	private static final int BUFFER = 1024; 		// next frontier vertices a task collects before publishing them
+
+	private final CSRGraph G;
+	private final ForkJoinPool pool;
+	private final int[] offsets;
+	private final int[] targets;
+
+	/**
+	 * Runs on ForkJoinPool.commonPool().
+	 * @param G
+	 */
+	public GraphTraversal(CSRGraph G) {
+		this(G, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Copies G to a CSRGraph first.
+	 * @param G
+	 */
+	public GraphTraversal(Graph G) {
+		this(CSRGraph.of(G));
+	}
+
+	/**
+	 * @param G
+	 * @param pool - runs every traversal, its parallelism sets the number of threads
+	 */
+	public GraphTraversal(CSRGraph G, ForkJoinPool pool) {
+		if (G == null) throw new IllegalArgumentException("G is null");
+		if (pool == null) throw new IllegalArgumentException("pool is null");
+		this.G = G;
+		this.pool = pool;
+		this.offsets = G.offsets;
+		this.targets = G.targets;
+	}
+
+	/**
+	 * @param s
+	 * @return the number of edges on a shortest path from s to each vertex, -1 if unreachable
+	 */
+	public int[] bfs(int s) {
+		return hops(s);
+	}
+
+	/**
+	 * Multi-source breadth first search.
+	 * @param sources
+	 * @return the number of edges on a shortest path from the nearest source
+	 * 	to each vertex, -1 if no source reaches it
+	 */
+	public int[] hops(int... sources) {
+		if (sources == null) throw new IllegalArgumentException("sources is null");
+		int V = G.V();
+		for (int s : sources) {
+			if (s < 0 || s >= V) throw new IllegalArgumentException("vertex " + s + " is not between 0 and " + (V - 1));
+		}
+		Search search = new Search(V);
+		for (int s : sources) search.source(s);
+		search.run();
+		return search.dist;
+	}
+
+	/**
+	 * Weakly connected components: an edge listed in one direction only
+	 * still joins its endpoints.
+	 * @return the component of each vertex, named by its smallest vertex,
+	 * 	so labels[v] == v for exactly one vertex of each component
+	 */
+	public int[] components() {
+		int V = G.V();
+		AtomicIntegerArray parent = new AtomicIntegerArray(V);
+		int[] labels = new int[V];
+		pool.invoke(new ForEachVertex(0, V, v -> parent.set(v, v)));
+		pool.invoke(new ForEachVertex(0, V, v -> {
+			for (int i = offsets[v], end = offsets[v + 1]; i < end; i++) union(parent, targets[i], v); 	// a repeat finds one root and returns
+		}));
+		pool.invoke(new ForEachVertex(0, V, v -> labels[v] = find(parent, v)));
+		return labels;
+	}
+
+	/**
+	 * @param labels - from components()
+	 * @return the number of components
+	 */
+	public static int count(int[] labels) {
+		int count = 0;
+		for (int v = 0; v < labels.length; v++) {
+			if (labels[v] == v) count++;
+		}
+		return count;
+	}
+
+	// roots only ever move to smaller vertices, so a root is the smallest vertex of its tree
+	private static void union(AtomicIntegerArray parent, int u, int v) {
+		while (true) {
+			u = find(parent, u);
+			v = find(parent, v);
+			if (u == v) return;
+			if (u < v) {
+				int t = u;
+				u = v;
+				v = t;
+			}
+			if (parent.compareAndSet(u, u, v)) return; 	// fails if u stopped being a root, retry
+		}
+	}
+
+	private static int find(AtomicIntegerArray parent, int x) {
+		while (true) {
+			int p = parent.get(x);
+			if (p == x) return x;
+			int gp = parent.get(p);
+			if (p != gp) parent.compareAndSet(x, p, gp); 	// path halving
+			x = gp;
+		}
+	}
+
+	/**
+	 * State of one breadth first search. The frontier is a queue of vertices
+	 * in top-down steps and a bitset in bottom-up steps.
+	 */
+	private class Search {
+		final int V;
+		final int[] dist;
+		final AtomicLongArray visited; 			// bitset of vertices with a distance
+		int[] queue, nextQueue; 				// frontier and next frontier, top-down
+		final AtomicInteger tail = new AtomicInteger(); 	// size of nextQueue
+		long[] front, next; 					// frontier and next frontier, bottom-up
+		boolean bottomUp;
+		int size; 								// vertices in the frontier
+		long edges; 							// edges out of the frontier
+		long unexplored; 						// edges out of unvisited vertices
+		int level;
+
+		Search(int V) {
+			this.V = V;
+			dist = new int[V];
+			Arrays.fill(dist, -1);
+			visited = new AtomicLongArray((V + 63) >>> 6);
+			queue = new int[Math.max(1, V)];
+			unexplored = targets.length;
+		}
+
+		void source(int s) {
+			if (!claim(s)) return;
+			dist[s] = 0;
+			queue[size++] = s;
+			edges += offsets[s + 1] - offsets[s];
+		}
+
+		void run() {
+			unexplored -= edges;
+			int previous = 0;
+			while (size > 0) {
+				if (!bottomUp && edges > unexplored / ALPHA) toBottomUp();
+				else if (bottomUp && size < V / BETA && size < previous) toTopDown();
+				previous = size;
+				if (bottomUp) {
+					long[] result = pool.invoke(new BottomUp(0, front.length));
+					size = (int) result[0];
+					edges = result[1];
+					long[] t = front;
+					front = next;
+					next = t;
+				} else {
+					if (nextQueue == null) nextQueue = new int[queue.length];
+					tail.set(0);
+					edges = pool.invoke(new TopDown(0, size));
+					size = tail.get();
+					int[] t = queue;
+					queue = nextQueue;
+					nextQueue = t;
+				}
+				unexplored -= edges;
+				level++;
+			}
+		}
+
+		void toBottomUp() {
+			if (front == null) {
+				front = new long[visited.length()];
+				next = new long[visited.length()];
+			} else Arrays.fill(front, 0);
+			for (int i = 0; i < size; i++) front[queue[i] >>> 6] |= 1L << queue[i];
+			bottomUp = true;
+		}
+
+		void toTopDown() {
+			int n = 0;
+			for (int w = 0; w < front.length; w++) {
+				for (long b = front[w]; b != 0; b &= b - 1) queue[n++] = (w << 6) + Long.numberOfTrailingZeros(b);
+			}
+			bottomUp = false;
+		}
+
+		boolean claim(int v) {
+			int w = v >>> 6;
+			long bit = 1L << v;
+			while (true) {
+				long old = visited.get(w);
+				if ((old & bit) != 0) return false;
+				if (visited.compareAndSet(w, old, old | bit)) return true;
+			}
+		}
+
+		/**
+		 * Expands queue[lo..hi-1], returns the edges out of the vertices it claimed.
+		 */
+		private class TopDown extends RecursiveTask<Long> {
+			private static final long serialVersionUID = 1L;
+			final int lo, hi;
+
+			TopDown(int lo, int hi) {
+				this.lo = lo;
+				this.hi = hi;
+			}
+
+			@Override
+			protected Long compute() {
+				if (hi - lo > VERTEX_GRAIN) {
+					int mid = (lo + hi) >>> 1;
+					TopDown left = new TopDown(lo, mid);
+					left.fork();
+					long right = new TopDown(mid, hi).compute();
+					return right + left.join();
+				}
+				int[] buffer = new int[BUFFER];
+				int n = 0;
+				long found = 0;
+				int d = level + 1;
+				for (int i = lo; i < hi; i++) {
+					int v = queue[i];
+					for (int j = offsets[v], end = offsets[v + 1]; j < end; j++) {
+						int w = targets[j];
+						if (dist[w] < 0 && claim(w)) { 	// dist is a cheap first look, claim decides
+							dist[w] = d;
+							found += offsets[w + 1] - offsets[w];
+							buffer[n++] = w;
+							if (n == BUFFER) {
+								publish(buffer, n);
+								n = 0;
+							}
+						}
+					}
+				}
+				publish(buffer, n);
+				return found;
+			}
+
+			private void publish(int[] buffer, int n) {
+				if (n > 0) System.arraycopy(buffer, 0, nextQueue, tail.getAndAdd(n), n);
+			}
+		}
+
+		/**
+		 * Visits unvisited vertices of bitset words [lo, hi) with a neighbour
+		 * in front, returns {vertices visited, edges out of them}.
+		 */
+		private class BottomUp extends RecursiveTask<long[]> {
+			private static final long serialVersionUID = 1L;
+			final int lo, hi;
+
+			BottomUp(int lo, int hi) {
+				this.lo = lo;
+				this.hi = hi;
+			}
+
+			@Override
+			protected long[] compute() {
+				if (hi - lo > WORD_GRAIN) {
+					int mid = (lo + hi) >>> 1;
+					BottomUp left = new BottomUp(lo, mid);
+					left.fork();
+					long[] right = new BottomUp(mid, hi).compute();
+					long[] l = left.join();
+					right[0] += l[0];
+					right[1] += l[1];
+					return right;
+				}
+				long count = 0, found = 0;
+				int d = level + 1;
+				for (int w = lo; w < hi; w++) {
+					long seen = visited.get(w); 		// only this task writes words lo to hi - 1
+					long unseen = ~seen;
+					if (w == front.length - 1 && (V & 63) != 0) unseen &= (1L << V) - 1; 	// past V
+					long add = 0;
+					for (long b = unseen; b != 0; b &= b - 1) {
+						int v = (w << 6) + Long.numberOfTrailingZeros(b);
+						for (int j = offsets[v], end = offsets[v + 1]; j < end; j++) {
+							int u = targets[j];
+							if ((front[u >>> 6] & (1L << u)) != 0) {
+								add |= b & -b;
+								dist[v] = d;
+								count++;
+								found += end - offsets[v];
+								break;
+							}
+						}
+					}
+					next[w] = add;
+					if (add != 0) visited.set(w, seen | add);
+				}
+				return new long[] {count, found};
+			}
+		}
+	}
+
+	/**
+	 * Calls body for each vertex in [lo, hi), split across the pool.
+	 */
+	private static class ForEachVertex extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		final int lo, hi;
+		final IntConsumer body;
+
+		ForEachVertex(int lo, int hi, IntConsumer body) {
+			this.lo = lo;
+			this.hi = hi;
+			this.body = body;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > VERTEX_GRAIN) {
+				int mid = (lo + hi) >>> 1;
+				invokeAll(new ForEachVertex(lo, mid, body), new ForEachVertex(mid, hi, body));
+			} else {
+				for (int v = lo; v < hi; v++) body.accept(v);
+			}
+		}
+	}
+
+}
@@ -1,115 +1,171 @@
 /**
- * Bag of integers, implemented as a Linked List of Nodes with Integer values
+ * Bag of integers, implemented as a growable array of ints
  */
 package graphs;
 
-import java.util.Iterator;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
 
 /**
  * @author Damien Pitman
- * 
+ *
  * Code modified from Algorithms, 4th ed., Hedgewick and Wayne
+ *
+ * Iterates newest first, the order of the original linked list, which
+ * inserted at its head. The array is filled from index 0, so iteration
+ * runs from index n - 1 down.
  */
 public class IntBag implements Iterable<Integer> {
-	
-	private Node head; // current head/first Node in the list
+
+	private static final int[] EMPTY = new int[0]; // shared until the first insert, most bags in a Graph stay small
+
+	private int[] nums; // nums[0..n-1], oldest first
 	private int n; // size of the list (default 0)
-	
-	private class Node {
-		int num; // sets the type of data type in Node to be int (default 0)
-		Node next; // which Node is next (default null)
-	}
-	
+
 	public IntBag() {
-		head = null;
+		nums = EMPTY;
 		n = 0;
 	}
-	
+
+	/**
+	 * @param bag - copied, order included
+	 */
+	public IntBag(IntBag bag) {
+		nums = (bag.n == 0) ? EMPTY : Arrays.copyOf(bag.nums, bag.n);
+		n = bag.n;
+	}
+
 	public boolean isEmpty() {
 		return n == 0;
 	}
-	
+
 	public int size() {
 		return n;
 	}
-	
+
 	public void insert(int num) {
-		// Insert new node with integer input to head of LinkedList
-		Node oldhead = head; // point to old head of LinkedList
-		head = new Node();
-		head.num = num; // assign integer input to new head
-		head.next = oldhead; // assign old head to be next for new head
-		n++; // increment size
+		if (n == nums.length) {
+			if (n == Integer.MAX_VALUE - 8) throw new IllegalStateException("IntBag is full");
+			nums = Arrays.copyOf(nums, (int) Math.min(Math.max(4, 2L * n), Integer.MAX_VALUE - 8));
+		}
+		nums[n++] = num;
 	}
-	
+
 	public boolean contains(int num) {
-		Node current = head;
-		while (current != null) {
-			if (current.num == num) return true;
-			current = current.next;
+		for (int i = 0; i < n; i++) {
+			if (nums[i] == num) return true;
 		}
 		return false;
 	}
-	
-	public Iterator<Integer> iterator() {
-		return new IntIterator(head);
+
+	/**
+	 * Removes the first num in iteration order, the newest, keeping the order of the rest.
+	 * @param num
+	 * @return false if num was not in the bag
+	 */
+	public boolean delete(int num) {
+		for (int i = n - 1; i >= 0; i--) {
+			if (nums[i] == num) {
+				System.arraycopy(nums, i + 1, nums, i, n - 1 - i);
+				n--;
+				return true;
+			}
+		}
+		return false;
 	}
-	
-	private class IntIterator implements Iterator<Integer> {
-	    Node current;
 
-	    public IntIterator(Node first) {
-	        current = first;
-	    }
+	/**
+	 * The returned iterator's nextInt() does not box, for (int x : bag) still works.
+	 */
+	public PrimitiveIterator.OfInt iterator() {
+		return new IntIterator();
+	}
+
+	/**
+	 * Calls action on each integer, newest first, without boxing.
+	 * Not an overload of Iterable.forEach, so x -> ... lambdas are not ambiguous.
+	 * @param action
+	 */
+	public void forEachInt(IntConsumer action) {
+		for (int i = n - 1; i >= 0; i--) action.accept(nums[i]);
+	}
+
+	/**
+	 * @return a copy of the integers, in iteration order
+	 */
+	public int[] toArray() {
+		int[] a = new int[n];
+		for (int i = 0; i < n; i++) a[i] = nums[n - 1 - i];
+		return a;
+	}
 
-		public boolean hasNext() { 
-	    	return current != null;                 
+	private class IntIterator implements PrimitiveIterator.OfInt {
+	    int current = n - 1; // index of the next integer
+
+		public boolean hasNext() {
+	    	return current >= 0;
 	    }
-	    
+
 	    // an iterator, doesn't implement remove() since it's optional
-		public void remove() { 
-	    	throw new UnsupportedOperationException();  
+		public void remove() {
+	    	throw new UnsupportedOperationException();
 	    }
 
-		public Integer next() {
+		public int nextInt() {
 	        if (!hasNext()) throw new NoSuchElementException();
-	        int x = current.num;
-	        current = current.next;
-	        return x;
+	        return nums[current--];
 	    }
 
 	}
 
+	/**
+	 * Removes repeated integers, keeping the first of each in iteration order.
+	 * Values spanning a range up to 64 times the size are marked in a bitset,
+	 * O(n + range / 64). Others sort (value, position) pairs packed in longs,
+	 * O(n log n).
+	 */
 	public void deleteDups() {
-		Node current = head;
-		Node priortocompare = current;
-		Node compare = current.next;
-		int repeats = 0;
-		while (!(compare == null)) {
-			do {
-				if (current.num == compare.num) {
-					priortocompare.next = compare.next;
-					repeats++;
-				} else {
-				priortocompare = compare;
+		if (n < 2) return;
+		int min = nums[0], max = nums[0];
+		for (int i = 1; i < n; i++) {
+			min = Math.min(min, nums[i]);
+			max = Math.max(max, nums[i]);
+		}
+		long range = (long) max - min + 1;
+		int kept = 0;
+		if (range <= 64L * n && range <= Integer.MAX_VALUE) {
+			long[] seen = new long[(int) ((range + 63) >>> 6)];
+			int[] keep = new int[n]; // positions to keep, newest first
+			for (int i = n - 1; i >= 0; i--) {
+				int bit = nums[i] - min;
+				if ((seen[bit >>> 6] & (1L << bit)) == 0) {
+					seen[bit >>> 6] |= 1L << bit;
+					keep[kept++] = i;
 				}
-				compare = compare.next;
 			}
-			while(!(compare == null));
-			current = current.next;
-			priortocompare = current;
-			compare = current.next;
+			for (int k = 0; k < kept; k++) nums[k] = nums[keep[kept - 1 - k]]; // keep[] descends, so this never overwrites an unread position
+		} else {
+			long[] packed = new long[n];
+			for (int i = 0; i < n; i++) packed[i] = ((long) nums[i] << 32) | i; // by value, then position
+			Arrays.sort(packed);
+			boolean[] keep = new boolean[n];
+			for (int j = 0; j < n; j++) {
+				// the newest of each value is the last of its run
+				if (j == n - 1 || (int) (packed[j] >> 32) != (int) (packed[j + 1] >> 32)) keep[(int) packed[j]] = true;
+			}
+			for (int i = 0; i < n; i++) {
+				if (keep[i]) nums[kept++] = nums[i];
+			}
 		}
-		n = n - repeats;
+		n = kept;
 	}
-	
+
 	public void print() {
-		// Prints each integer 
-		Node tmpcurr = head;
-		for (int i = 0; i < n; i++) {
-			System.out.print(tmpcurr.num + ", ");
-			tmpcurr = tmpcurr.next;
+		// Prints each integer
+		for (int i = n - 1; i >= 0; i--) {
+			System.out.print(nums[i] + ", ");
 		}
 		System.out.println();
 	}
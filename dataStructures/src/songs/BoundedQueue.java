@@ -0,0 +1,146 @@
+/**
+ * Bounded First In First Out (FIFO) queue that threads can share,
+ * for handing items from producer threads to consumer threads.
+ */
+package songs;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Subclasses supply the non-blocking offer() and poll(). Blocking and batch
+ * operations are built on them here: a blocked thread spins briefly, then
+ * yields, then parks for short intervals until it can go on, so no locks
+ * or wakeups are needed on the fast path.
+ *
+ * @param <Item>
+ */
+public abstract class BoundedQueue<Item> {
+
+	private static final int SPINS = 100;			// busy waits before yielding
+	private static final int YIELDS = 100;			// yields before parking
+	private static final long PARK_NANOS = 50_000;	// 50 microseconds
+
+	/**
+	 * Places item at the back of the queue if there is room.
+	 * @param item
+	 * @return false if the queue is full
+	 */
+	public abstract boolean offer(Item item);
+
+	/**
+	 * Removes and returns the item at the front of the queue.
+	 * @return null if the queue is empty
+	 */
+	public abstract Item poll();
+
+	/**
+	 * @return the number of items in the queue, may be out of date as soon as it returns
+	 */
+	public abstract int size();
+
+	/**
+	 * @return the most items the queue can hold
+	 */
+	public abstract int capacity();
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Places item at the back of the queue, waiting for room if necessary.
+	 * @param item
+	 * @throws InterruptedException
+	 */
+	public void put(Item item) throws InterruptedException {
+		for (int tries = 0; !offer(item); tries++) idle(tries);
+	}
+
+	/**
+	 * Removes and returns the item at the front of the queue, waiting for one if necessary.
+	 * @return
+	 * @throws InterruptedException
+	 */
+	public Item take() throws InterruptedException {
+		Item item;
+		for (int tries = 0; (item = poll()) == null; tries++) idle(tries);
+		return item;
+	}
+
+	/**
+	 * Places item at the back of the queue, waiting up to timeout for room.
+	 * @param item
+	 * @param timeout
+	 * @param unit
+	 * @return false if there was no room in time
+	 * @throws InterruptedException
+	 */
+	public boolean offer(Item item, long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		for (int tries = 0; !offer(item); tries++) {
+			if (System.nanoTime() - deadline >= 0) return false;
+			idle(tries);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes and returns the item at the front of the queue, waiting up to timeout for one.
+	 * @param timeout
+	 * @param unit
+	 * @return null if no item arrived in time
+	 * @throws InterruptedException
+	 */
+	public Item poll(long timeout, TimeUnit unit) throws InterruptedException {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		Item item;
+		for (int tries = 0; (item = poll()) == null; tries++) {
+			if (System.nanoTime() - deadline >= 0) return null;
+			idle(tries);
+		}
+		return item;
+	}
+
+	/**
+	 * Removes up to max items from the front of the queue, passing each to sink in order.
+	 * Does not wait. If sink throws, the item it was passed has been removed,
+	 * the items after it stay in the queue.
+	 * @param sink
+	 * @param max
+	 * @return the number of items removed
+	 */
+	public int drainTo(Consumer<? super Item> sink, int max) {
+		if (sink == null) throw new IllegalArgumentException("called drainTo() with null sink");
+		int count = 0;
+		Item item;
+		while (count < max && (item = poll()) != null) {
+			sink.accept(item);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Backs off a little more the more times a thread has had to wait.
+	 * @param tries number of times the caller has already waited
+	 * @throws InterruptedException
+	 */
+	static void idle(int tries) throws InterruptedException {
+		if (Thread.interrupted()) throw new InterruptedException();
+		if (tries < SPINS) Thread.onSpinWait();
+		else if (tries < SPINS + YIELDS) Thread.yield();
+		else LockSupport.parkNanos(PARK_NANOS);
+	}
+
+	/**
+	 * @param capacity
+	 * @return the smallest power of two at least capacity
+	 */
+	static int powerOfTwo(int capacity) {
+		if (capacity < 1 || capacity > (1 << 30)) throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+		return (capacity == 1) ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+	}
+
+}
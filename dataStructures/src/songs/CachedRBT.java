@@ -0,0 +1,478 @@
+/**
+ * Red-Black Tree with a bounded read-through cache in front of get.
+ * Same get, put, delete API as RBT, safe for concurrent use.
+ */
+package songs;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * get looks the key up in a hash cache first and only walks the tree on a
+ * miss, then caches what it found. put and delete change the tree and
+ * invalidate the key. Keys need equals and hashCode consistent with compareTo.
+ *
+ * The cache is split into segments by key hash, each with its own lock, so
+ * threads hitting different segments don't wait on each other. The tree is
+ * behind a read-write lock: many threads can walk it at once, writers alone.
+ *
+ * A miss could read a value from the tree just before a put replaces it and
+ * cache it just after the put invalidated the key. Each segment counts its
+ * invalidations, and a miss only caches its value if the count didn't
+ * change while it was reading the tree.
+ *
+ * Absent keys are not cached, a get for them always walks the tree.
+ *
+ * @param <Key>
+ * @param <Value>
+ */
+public class CachedRBT<Key extends Comparable<Key>, Value> {
+
+	/**
+	 * Which entry a full segment evicts.
+	 */
+	public enum Policy {
+		/** least recently used */
+		LRU,
+		/** Window TinyLFU: recent entries get a small LRU window, then must be
+		 * used more often than the entry they would replace to stay */
+		TINY_LFU
+	}
+
+	private static final int MAX_SEGMENTS = 16;
+	private static final int MIN_SEGMENT_CAPACITY = 64;
+
+	private final RBT<Key, Value> tree;
+	private final ReentrantReadWriteLock treeLock = new ReentrantReadWriteLock();
+	private final Segment<Key, Value>[] segments;
+	private final int mask; 					// segments.length - 1, a power of two
+	private final int capacity;
+	private final Policy policy;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Caches up to capacity entries of tree. The CachedRBT takes over tree,
+	 * change it only through the CachedRBT from now on.
+	 * @param tree
+	 * @param capacity maximum number of cached entries
+	 * @param policy
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public CachedRBT(RBT<Key, Value> tree, int capacity, Policy policy) {
+		if (tree == null) throw new IllegalArgumentException("tree is null");
+		if (capacity < 1) throw new IllegalArgumentException("capacity must be positive");
+		if (policy == null) throw new IllegalArgumentException("policy is null");
+		this.tree = tree;
+		this.capacity = capacity;
+		this.policy = policy;
+		int n = 1;
+		while (n < MAX_SEGMENTS && capacity / (2 * n) >= MIN_SEGMENT_CAPACITY) n *= 2;
+		segments = new Segment[n];
+		mask = n - 1;
+		for (int i = 0; i < n; i++) {
+			int segmentCapacity = capacity / n + (i < capacity % n ? 1 : 0);
+			segments[i] = (policy == Policy.LRU) ? new LruSegment<Key, Value>(segmentCapacity) : new TinyLfuSegment<Key, Value>(segmentCapacity);
+		}
+	}
+
+	public CachedRBT(int capacity, Policy policy) {
+		this(new RBT<Key, Value>(), capacity, policy);
+	}
+
+	/**
+	 * Returns the value associated with key, from the cache if it's there.
+	 * @param key
+	 * @return
+	 */
+	public Value get(Key key) {
+		if (key == null) throw new IllegalArgumentException("called get() with null key");
+		int hash = hash(key);
+		Segment<Key, Value> segment = segments[hash & mask];
+		long version;
+		segment.lock.lock();
+		try {
+			Value val = segment.get(key, hash);
+			if (val != null) {
+				hits.increment();
+				return val;
+			}
+			version = segment.version;
+		} finally {
+			segment.lock.unlock();
+		}
+		misses.increment();
+		Value val;
+		treeLock.readLock().lock();
+		try {
+			val = tree.get(key);
+		} finally {
+			treeLock.readLock().unlock();
+		}
+		if (val == null) return null;
+		segment.lock.lock();
+		try {
+			if (segment.version == version) evictions.add(segment.put(key, hash, val));
+		} finally {
+			segment.lock.unlock();
+		}
+		return val;
+	}
+
+	/**
+	 * @param key
+	 * @return true if key has a value in the tree
+	 */
+	public boolean contains(Key key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Inserts or replaces the value of key in the tree and drops key from the
+	 * cache. A null val deletes key.
+	 * @param key
+	 * @param val
+	 */
+	public void put(Key key, Value val) {
+		if (key == null) throw new IllegalArgumentException("called put() with null key");
+		treeLock.writeLock().lock();
+		try {
+			tree.put(key, val);
+		} finally {
+			treeLock.writeLock().unlock();
+		}
+		invalidate(key);
+	}
+
+	/**
+	 * Removes key and its value from the tree and the cache.
+	 * @param key
+	 */
+	public void delete(Key key) {
+		if (key == null) throw new IllegalArgumentException("called delete() with null key");
+		treeLock.writeLock().lock();
+		try {
+			tree.delete(key);
+		} finally {
+			treeLock.writeLock().unlock();
+		}
+		invalidate(key);
+	}
+
+	/**
+	 * Returns total number of nodes in the tree.
+	 * @return
+	 */
+	public int size() {
+		treeLock.readLock().lock();
+		try {
+			return tree.size();
+		} finally {
+			treeLock.readLock().unlock();
+		}
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Empties the cache, the tree is unchanged.
+	 */
+	public void clear() {
+		for (Segment<Key, Value> segment : segments) {
+			segment.lock.lock();
+			try {
+				segment.version++;
+				segment.clear();
+			} finally {
+				segment.lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * @return maximum number of cached entries
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	public Policy policy() {
+		return policy;
+	}
+
+	/**
+	 * @return number of entries in the cache now
+	 */
+	public int cached() {
+		int n = 0;
+		for (Segment<Key, Value> segment : segments) {
+			segment.lock.lock();
+			try {
+				n += segment.size();
+			} finally {
+				segment.lock.unlock();
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * @return number of gets answered by the cache
+	 */
+	public long hits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of gets that walked the tree
+	 */
+	public long misses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of entries dropped to make room, invalidations not counted
+	 */
+	public long evictions() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return hits / (hits + misses), 0 before the first get
+	 */
+	public double hitRate() {
+		long h = hits(), total = h + misses();
+		return (total == 0) ? 0 : (double) h / total;
+	}
+
+	private void invalidate(Key key) {
+		int hash = hash(key);
+		Segment<Key, Value> segment = segments[hash & mask];
+		segment.lock.lock();
+		try {
+			segment.version++; 						// gets that missed before this won't cache their value
+			segment.remove(key);
+		} finally {
+			segment.lock.unlock();
+		}
+	}
+
+	// spreads the high bits, segments use the low bits and the sketch the rest
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * One part of the cache. Methods are called with lock held.
+	 */
+	private abstract static class Segment<Key, Value> {
+		final ReentrantLock lock = new ReentrantLock();
+		long version; 								// number of invalidations
+		final int capacity;
+
+		Segment(int capacity) {
+			this.capacity = capacity;
+		}
+
+		/**
+		 * @return the cached value of key, or null
+		 */
+		abstract Value get(Key key, int hash);
+
+		/**
+		 * Caches key with val.
+		 * @return number of entries evicted
+		 */
+		abstract int put(Key key, int hash, Value val);
+
+		abstract void remove(Key key);
+
+		abstract int size();
+
+		abstract void clear();
+	}
+
+	/**
+	 * An access ordered LinkedHashMap, the eldest entry is the least recently used.
+	 */
+	private static class LruSegment<Key, Value> extends Segment<Key, Value> {
+		private final LinkedHashMap<Key, Value> map;
+
+		LruSegment(int capacity) {
+			super(capacity);
+			map = new LinkedHashMap<Key, Value>(16, 0.75f, true);
+		}
+
+		Value get(Key key, int hash) {
+			return map.get(key);
+		}
+
+		int put(Key key, int hash, Value val) {
+			map.put(key, val);
+			if (map.size() <= capacity) return 0;
+			Iterator<Key> eldest = map.keySet().iterator();
+			eldest.next();
+			eldest.remove();
+			return 1;
+		}
+
+		void remove(Key key) {
+			map.remove(key);
+		}
+
+		int size() {
+			return map.size();
+		}
+
+		void clear() {
+			map.clear();
+		}
+	}
+
+	/**
+	 * New entries go into a window LRU, about 1% of the capacity. An entry
+	 * pushed out of the window competes with the eldest entry of the main
+	 * cache, and the one used more often, by a frequency sketch, stays.
+	 * The main cache is a segmented LRU: entries start on probation and move
+	 * to the protected part, 80% of main, when they're used again.
+	 */
+	private static class TinyLfuSegment<Key, Value> extends Segment<Key, Value> {
+		private final LinkedHashMap<Key, Value> window = new LinkedHashMap<Key, Value>(16, 0.75f, true);
+		private final LinkedHashMap<Key, Value> probation = new LinkedHashMap<Key, Value>(16, 0.75f, true);
+		private final LinkedHashMap<Key, Value> protect = new LinkedHashMap<Key, Value>(16, 0.75f, true);
+		private final int windowCapacity, mainCapacity, protectCapacity;
+		private final FrequencySketch sketch;
+
+		TinyLfuSegment(int capacity) {
+			super(capacity);
+			windowCapacity = Math.max(1, capacity / 100);
+			mainCapacity = capacity - windowCapacity;
+			protectCapacity = mainCapacity * 4 / 5;
+			sketch = new FrequencySketch(capacity);
+		}
+
+		Value get(Key key, int hash) {
+			sketch.increment(hash);
+			Value val = window.get(key);
+			if (val != null) return val;
+			val = protect.get(key);
+			if (val != null) return val;
+			val = probation.remove(key);
+			if (val == null) return null;
+			protect.put(key, val); 						// used again on probation, promote it
+			if (protect.size() > protectCapacity) {
+				Map.Entry<Key, Value> eldest = eldest(protect);
+				protect.remove(eldest.getKey());
+				probation.put(eldest.getKey(), eldest.getValue());
+			}
+			return val;
+		}
+
+		int put(Key key, int hash, Value val) {
+			remove(key); 								// another miss may have cached it already
+			window.put(key, val);
+			if (window.size() <= windowCapacity) return 0;
+			Map.Entry<Key, Value> candidate = eldest(window);
+			window.remove(candidate.getKey());
+			if (probation.size() + protect.size() < mainCapacity) {
+				probation.put(candidate.getKey(), candidate.getValue());
+				return 0;
+			}
+			LinkedHashMap<Key, Value> from = probation.isEmpty() ? protect : probation;
+			if (from.isEmpty()) return 1; 					// no main cache at all, the candidate goes
+			Map.Entry<Key, Value> victim = eldest(from);
+			if (sketch.frequency(hash(candidate.getKey())) > sketch.frequency(hash(victim.getKey()))) {
+				from.remove(victim.getKey());
+				probation.put(candidate.getKey(), candidate.getValue());
+			}
+			return 1;
+		}
+
+		void remove(Key key) {
+			if (window.remove(key) == null && probation.remove(key) == null) protect.remove(key);
+		}
+
+		int size() {
+			return window.size() + probation.size() + protect.size();
+		}
+
+		void clear() {
+			window.clear();
+			probation.clear();
+			protect.clear();
+		}
+
+		private static <Key, Value> Map.Entry<Key, Value> eldest(LinkedHashMap<Key, Value> map) {
+			return map.entrySet().iterator().next();
+		}
+	}
+
+	/**
+	 * Count-min sketch of how often each key hash was seen, 4 rows of 4-bit
+	 * counters packed 16 to a long. Every counter is halved after 10 samples
+	 * per cached entry, so old popularity fades.
+	 */
+	private static class FrequencySketch {
+		private static final long[] SEEDS = { 0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L };
+		private static final long HALF = 0x7777777777777777L; 	// clears the bit each counter gets from its neighbour when shifted
+
+		private final long[] table; 					// 4 rows
+		private final int rowMask; 						// counters per row - 1
+		private final int sampleSize;
+		private int samples;
+
+		FrequencySketch(int capacity) {
+			int counters = 16;
+			while (counters < 4 * capacity && counters < (1 << 26)) counters *= 2;
+			table = new long[4 * counters / 16];
+			rowMask = counters - 1;
+			sampleSize = 10 * Math.max(capacity, 1);
+		}
+
+		void increment(int hash) {
+			boolean added = false;
+			for (int row = 0; row < 4; row++) {
+				int counter = index(hash, row);
+				int word = counter >>> 4, shift = (counter & 15) << 2;
+				if (((table[word] >>> shift) & 15) < 15) {
+					table[word] += 1L << shift;
+					added = true;
+				}
+			}
+			if (added && ++samples == sampleSize) reset();
+		}
+
+		/**
+		 * @return estimated number of times hash was seen, at most 15
+		 */
+		int frequency(int hash) {
+			int min = 15;
+			for (int row = 0; row < 4; row++) {
+				int counter = index(hash, row);
+				min = Math.min(min, (int) (table[counter >>> 4] >>> ((counter & 15) << 2)) & 15);
+			}
+			return min;
+		}
+
+		// counter number in the table, row * counters per row + column
+		private int index(int hash, int row) {
+			long h = (hash + SEEDS[row]) * SEEDS[row];
+			int column = (int) (h >>> 32) & rowMask;
+			return row * (rowMask + 1) + column;
+		}
+
+		private void reset() {
+			for (int i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & HALF;
+			samples /= 2;
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+/**
+ * Thread-safe Red-Black Tree Class from Key, Value pairs.
+ * Same get, put, delete and keys API as RBT.
+ */
+package songs;
+
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the latest version of a PersistentRBT. Reads never lock.
+ * Writers take a lock, build the next version, which copies only the Nodes on
+ * the path they change, and publish it with one volatile write.
+ * A reader sees one consistent version of the tree from the moment it starts,
+ * however long it keeps it.
+ *
+ * @param <Key>
+ * @param <Value>
+ */
+public class ConcurrentRBT<Key extends Comparable<Key>, Value> implements Iterable<Key> {
+
+	private volatile PersistentRBT<Key, Value> tree = new PersistentRBT<Key, Value>();	// latest published version
+	private final ReentrantLock writeLock = new ReentrantLock();	// writers take turns, readers never wait
+
+	public ConcurrentRBT() {
+	}
+
+	/**
+	 * Returns the value associated with input key. Never blocks.
+	 * @param key
+	 * @return
+	 */
+	public Value get(Key key) {
+		return tree.get(key);
+	}
+
+	/**
+	 * @param key
+	 * @return true if key has a value in the tree
+	 */
+	public boolean contains(Key key) {
+		return tree.contains(key);
+	}
+
+	/**
+	 * Returns total number of nodes in the tree.
+	 * @return
+	 */
+	public int size() {
+		return tree.size();
+	}
+
+	/**
+	 * @return true if the tree has no nodes
+	 */
+	public boolean isEmpty() {
+		return tree.isEmpty();
+	}
+
+	/**
+	 * Puts key, val pair into the tree. A null val deletes key.
+	 * Readers keep seeing the previous version until the new one is published.
+	 * @param key
+	 * @param val
+	 */
+	public void put(Key key, Value val) {
+		if (key == null) throw new IllegalArgumentException("first argument to put() is null");
+		writeLock.lock();
+		try {
+			tree = tree.put(key, val);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Removes key and its value from the tree, if key is present.
+	 * @param key
+	 */
+	public void delete(Key key) {
+		if (key == null) throw new IllegalArgumentException("called delete() with null key");
+		writeLock.lock();
+		try {
+			tree = tree.delete(key);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the current version of the tree in O(1).
+	 * Later writes do not change it.
+	 * @return
+	 */
+	public PersistentRBT<Key, Value> snapshot() {
+		return tree;
+	}
+
+	/**
+	 * Returns the keys of the tree in order, as of the moment keys() is called.
+	 * Later writes do not affect the iteration, and never block it.
+	 * @return
+	 */
+	public Iterable<Key> keys() {
+		return tree.keys();
+	}
+
+	/**
+	 * @return an iterator over the keys of the tree in order, as of this call
+	 */
+	public Iterator<Key> iterator() {
+		return tree.iterator();
+	}
+
+}
@@ -8,11 +8,9 @@
  */
 package songs;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.Scanner;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 
 /**
  * @author Damien Pitman
@@ -22,35 +20,12 @@ public class Driver {
 	public static void main(String[] args) throws IOException {
 		RBT<Song, String> rbt = new RBT<Song, String>(); // Initialize Red-Black Tree of Nodes 
 		
-		BufferedReader reader = null;	// Usual Scanner method did not work. Found a solution at
-						// https://www.journaldev.com/2335/read-csv-file-java-scanner#:~:text=
-						//  If%20you%20look%20into%20Scanner,CSV%20file%20using%20Scanner%20only.
-		String line = null;
-		Scanner in = null;
-		String name = null;
-		String time = null;
-		String album = null;
-		String year = null;
-		// Read and clean songs.csv
+		// Read songs.csv, in parallel chunks for large files
 		try {
-			reader = new BufferedReader(new FileReader("src/songs/songs.csv"));
-        	while ((line = reader.readLine()) != null) {
-            	in = new Scanner(line.replaceAll("\"\"\"", "\"")); 	
-            	in.useDelimiter(","); 				
-            	while (in.hasNext()) {
-            		name = in.next(); 				
-            		time = in.next();
-            		album = in.next();
-            		year = in.next();
-            	}
-        		Song song = new Song(name, time, album, year);	
-                rbt.put(song, song.getName()); 	
-            }
-        } catch (FileNotFoundException ex) {
-        	System.out.println(ex);
-        } finally {
-    		if(in != null) in.close();
-    	}
+			rbt = SongLoader.load(Paths.get("src/songs/songs.csv"));
+		} catch (NoSuchFileException ex) {
+			System.out.println(ex);
+		}
 
 		// Print songs from songs.csv in Red-Black Tree Song order
 		System.out.printf("%32s%6s%70s%6s%n", "Song Name", "Year", "Album", "Time");
@@ -0,0 +1,119 @@
+/**
+ * IntQueue objects have First In First Out (FIFO) structure, for int values.
+ * Same API as Queue, without boxing.
+ */
+package songs;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Values are kept in a circular int array that doubles when full and halves
+ * when a quarter full, so neither enqueue nor iteration allocates an Integer.
+ */
+public class IntQueue implements Iterable<Integer> {
+
+	private static final int MIN_CAPACITY = 8; 	// power of two, so wrap around is a mask
+
+	private int[] items; 		// circular array of values, length is a power of two
+	private int front; 			// index of the value to be first out
+	private int n; 				// size of the IntQueue (default 0)
+
+	public IntQueue() {
+		items = new int[MIN_CAPACITY];
+	}
+
+	/**
+	 * @return the value to be last out, the most recently enqueued
+	 */
+	public int getBack() {
+		if (isEmpty()) throw new NoSuchElementException("Queue underflow");
+		return items[(front + n - 1) & (items.length - 1)];
+	}
+
+	/**
+	 * @return the value to be first out, without removing it
+	 */
+	public int peek() {
+		if (isEmpty()) throw new NoSuchElementException("Queue underflow");
+		return items[front];
+	}
+
+	public void enqueue(int item) { 	// place value at back of the queue
+		if (n == items.length) resize(2 * items.length);	// full, double the array
+		items[(front + n) & (items.length - 1)] = item;	// slot after the old back, wrapping around
+		n++; 							// increment size
+	}
+
+	public int dequeue() {				// remove value from front of queue and return it
+		if (isEmpty()) throw new NoSuchElementException("Queue underflow");
+		int item = items[front];	 	// get front value
+		front = (front + 1) & (items.length - 1);	// next value is now at the front
+		n--; 							// decrement size
+		if (n > 0 && n == items.length / 4 && items.length > MIN_CAPACITY) resize(items.length / 2);
+		return item;
+	}
+
+	/**
+	 * Copies the values, in order, to the start of a new array.
+	 * @param capacity a power of two at least n
+	 */
+	private void resize(int capacity) {
+		int[] copy = new int[capacity];
+		for (int i = 0; i < n; i++) {
+			copy[i] = items[(front + i) & (items.length - 1)];
+		}
+		items = copy;
+		front = 0;
+	}
+
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	/**
+	 * @return the number of values in the IntQueue
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Calls action on each value in FIFO order, without boxing.
+	 * Not an overload of Iterable.forEach, so x -> ... lambdas are not ambiguous.
+	 * @param action
+	 */
+	public void forEachInt(IntConsumer action) {
+		for (int i = 0; i < n; i++) {
+			action.accept(items[(front + i) & (items.length - 1)]);
+		}
+	}
+
+	/**
+	 * @return an iterator. Use nextInt() to read values without boxing
+	 */
+	public PrimitiveIterator.OfInt iterator() {
+		return new IntIterator();
+	}
+
+	private class IntIterator implements PrimitiveIterator.OfInt {
+		int i; 		// number of values already returned
+
+		public boolean hasNext() {
+			return i < n;
+		}
+
+		// an iterator, doesn't implement remove() since it's optional
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		public int nextInt() {
+			if (!hasNext()) throw new NoSuchElementException();
+			return items[(front + i++) & (items.length - 1)];
+		}
+
+	}
+
+}
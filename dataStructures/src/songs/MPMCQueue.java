@@ -0,0 +1,88 @@
+/**
+ * Bounded lock-free queue for any number of producer and consumer threads.
+ */
+package songs;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Array of slots, each with a sequence number that says whose turn it is
+ * (after Dmitry Vyukov's bounded MPMC queue). A producer claims slot
+ * tail by moving tail forward with compare-and-set once the sequence shows the
+ * slot is empty, writes the item, then sets the sequence to tell consumers
+ * the slot is full. Consumers do the same with head. Producers and consumers
+ * only contend with their own kind, and never take a lock. head and tail
+ * are padded onto their own cache lines, so the two kinds do not share one.
+ *
+ * @param <Item>
+ */
+public class MPMCQueue<Item> extends BoundedQueue<Item> {
+
+	private final Object[] items; 				// slots, length is a power of two
+	private final AtomicLongArray sequence; 	// sequence[i] == position when slot i is ready for the producer at position,
+												// position + 1 when ready for the consumer at position
+	private final int mask;
+	private final PaddedAtomicLong tail = new PaddedAtomicLong(); 	// next position to fill
+	private final PaddedAtomicLong head = new PaddedAtomicLong(); 	// next position to empty
+
+	/**
+	 * Constructs an empty queue holding at least capacity items.
+	 * @param capacity rounded up to a power of two
+	 */
+	public MPMCQueue(int capacity) {
+		int length = powerOfTwo(capacity);
+		items = new Object[length];
+		sequence = new AtomicLongArray(length);
+		for (int i = 0; i < length; i++) sequence.set(i, i);
+		mask = length - 1;
+	}
+
+	public boolean offer(Item item) {
+		if (item == null) throw new IllegalArgumentException("called offer() with null item");
+		long position = tail.get();
+		while (true) {
+			int i = (int) position & mask;
+			long dif = sequence.get(i) - position;
+			if (dif == 0) { 								// slot is empty, try to claim it
+				if (tail.compareAndSet(position, position + 1)) {
+					items[i] = item;
+					sequence.set(i, position + 1); 			// publish item to consumers
+					return true;
+				}
+				position = tail.get(); 						// another producer claimed it
+			}
+			else if (dif < 0) return false; 				// slot still holds an item from one lap ago, full
+			else position = tail.get(); 					// fell behind other producers
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public Item poll() {
+		long position = head.get();
+		while (true) {
+			int i = (int) position & mask;
+			long dif = sequence.get(i) - (position + 1);
+			if (dif == 0) { 								// slot is full, try to claim it
+				if (head.compareAndSet(position, position + 1)) {
+					Item item = (Item) items[i];
+					items[i] = null; 						// do not hold on to the item
+					sequence.set(i, position + items.length);	// hand slot to the producer one lap ahead
+					return item;
+				}
+				position = head.get(); 						// another consumer claimed it
+			}
+			else if (dif < 0) return null; 				// slot not filled yet, empty
+			else position = head.get(); 					// fell behind other consumers
+		}
+	}
+
+	public int size() {
+		long size = tail.get() - head.get();
+		return (int) Math.max(0, Math.min(size, items.length));
+	}
+
+	public int capacity() {
+		return items.length;
+	}
+
+}
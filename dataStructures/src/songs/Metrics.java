@@ -0,0 +1,45 @@
+/**
+ * Registers metrics with the platform MBeanServer, so JMX clients such as
+ * jconsole can read them.
+ */
+package songs;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+final class Metrics {
+
+	private Metrics() {
+	}
+
+	/**
+	 * Registers bean as songs:type=type,name=name.
+	 * @param bean
+	 * @param type
+	 * @param name
+	 * @return the name it was registered under, for unregister
+	 * @throws IllegalArgumentException if the name is taken or not valid
+	 */
+	static ObjectName register(Object bean, String type, String name) {
+		try {
+			ObjectName objectName = new ObjectName("songs:type=" + type + ",name=" + ObjectName.quote(name));
+			ManagementFactory.getPlatformMBeanServer().registerMBean(bean, objectName);
+			return objectName;
+		} catch (JMException e) {
+			throw new IllegalArgumentException("cannot register " + type + " metrics as " + name, e);
+		}
+	}
+
+	/**
+	 * Unregisters objectName, if it is registered.
+	 * @param objectName
+	 */
+	static void unregister(ObjectName objectName) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+		} catch (JMException e) { 				// not registered, nothing to do
+		}
+	}
+
+}
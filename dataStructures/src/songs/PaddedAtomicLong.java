@@ -0,0 +1,22 @@
+/**
+ * AtomicLong padded to more than a cache line, for counters written by different threads.
+ */
+package songs;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fields of a subclass are laid out after those of AtomicLong, so the padding
+ * follows the value. Two of these allocated one after the other keep their
+ * values at least 64 bytes apart, and a producer moving tail no longer
+ * invalidates the line a consumer reads head from.
+ * cached is a spare long for the thread that writes the counter, on the same
+ * line, for example SPSCQueue's cached view of the other index.
+ */
+final class PaddedAtomicLong extends AtomicLong {
+	private static final long serialVersionUID = 1L;
+
+	long cached; 									// written only by the thread that writes the counter
+	@SuppressWarnings("unused")
+	private long p1, p2, p3, p4, p5, p6, p7; 		// 56 bytes, keeps the next object off this line
+}
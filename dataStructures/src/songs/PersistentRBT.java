@@ -0,0 +1,315 @@
+/**
+ * Persistent (immutable) Red-Black Tree Class from Key, Value pairs.
+ * put and delete return a new version of the tree and leave this one unchanged.
+ */
+package songs;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A new version copies only the Nodes on the path from the root to the change,
+ * O(log n) Nodes, and shares every other Node with the version it came from.
+ * Keeping a version around as a snapshot costs nothing beyond the reference to it.
+ * Versions are immutable, so they are safe to share between threads.
+ *
+ * @param <Key>
+ * @param <Value>
+ */
+public final class PersistentRBT<Key extends Comparable<Key>, Value> implements Iterable<Key> {
+
+	private final Node<Key, Value> root;
+	private static final boolean RED = true;
+	private static final boolean BLACK = false;
+
+	/**
+	 * Constructs an empty tree.
+	 */
+	public PersistentRBT() {
+		this(null);
+	}
+
+	private PersistentRBT(Node<Key, Value> root) {
+		this.root = root;
+	}
+
+	/**
+	 * Static, so a Node never holds on to the version that created it.
+	 */
+	private static final class Node<Key, Value> {
+		Key key;
+		Value val;
+		Node<Key, Value> left, right; 	// children - left lesser - right greater
+		int size; 						// number of nodes in tree
+		boolean color; 					// of current node / parent link
+		final Object edit;				// update that created this Node, it may only change during that update
+		public Node(Key key, Value val, boolean color, int size, Object edit) {
+			this.key = key;
+			this.val = val;
+			this.size = size;
+			this.color = color;
+			this.edit = edit;
+		}
+
+	}
+
+	private static boolean isRed(Node<?, ?> x) {
+		if (x == null) return false;
+		return x.color == RED;
+	}
+
+	private static int size(Node<?, ?> x) {
+		if (x == null) return 0;
+		return x.size;
+	}
+
+	/**
+	 * Returns the value associated with input key.
+	 * @param key
+	 * @return
+	 */
+	public Value get(Key key) {
+		if (key == null) throw new IllegalArgumentException("called get() with null key");
+		Node<Key, Value> x = root;
+		while (x != null) {
+			int cmp = key.compareTo(x.key);
+			if (cmp < 0) x = x.left;
+			else if (cmp > 0) x = x.right;
+			else return x.val;
+		}
+		return null;
+	}
+
+	/**
+	 * @param key
+	 * @return true if key has a value in this version
+	 */
+	public boolean contains(Key key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Returns total number of nodes in this version.
+	 * @return
+	 */
+	public int size() {
+		return size(root);
+	}
+
+	/**
+	 * @return true if this version has no nodes
+	 */
+	public boolean isEmpty() {
+		return root == null;
+	}
+
+	/**
+	 * Returns a new version with key, val pair put in. A null val deletes key.
+	 * @param key
+	 * @param val
+	 * @return
+	 */
+	public PersistentRBT<Key, Value> put(Key key, Value val) {
+		if (key == null) throw new IllegalArgumentException("first argument to put() is null");
+		if (val == null) return delete(key);
+		Node<Key, Value> h = new Update<Key, Value>().put(root, key, val);
+		h.color = BLACK;
+		return new PersistentRBT<Key, Value>(h);
+	}
+
+	/**
+	 * Returns a new version without key, or this version if key is not present.
+	 * @param key
+	 * @return
+	 */
+	public PersistentRBT<Key, Value> delete(Key key) {
+		if (key == null) throw new IllegalArgumentException("called delete() with null key");
+		if (!contains(key)) return this;
+		Update<Key, Value> update = new Update<Key, Value>();
+		Node<Key, Value> h = root;
+		if (!isRed(h.left) && !isRed(h.right)) {
+			h = update.own(h);
+			h.color = RED;
+		}
+		h = update.delete(h, key);
+		if (h != null) h.color = BLACK;						// h is owned after any delete below it
+		return new PersistentRBT<Key, Value>(h);
+	}
+
+	/**
+	 * One put or delete. Nodes it creates carry its edit token and may be
+	 * changed until the new version is returned, every other Node is copied first.
+	 * The LLRB steps are the same as in RBT. All helpers take a Node already
+	 * owned by this update and own any child before changing it.
+	 */
+	private static final class Update<Key extends Comparable<Key>, Value> {
+		private final Object edit = new Object();
+
+		/**
+		 * Returns x itself if this update created it, otherwise a copy of x.
+		 * @param x
+		 * @return
+		 */
+		Node<Key, Value> own(Node<Key, Value> x) {
+			if (x.edit == edit) return x;
+			Node<Key, Value> copy = new Node<Key, Value>(x.key, x.val, x.color, x.size, edit);
+			copy.left = x.left;
+			copy.right = x.right;
+			return copy;
+		}
+
+		Node<Key, Value> put(Node<Key, Value> h, Key key, Value val) {
+			if (h == null) return new Node<Key, Value>(key, val, RED, 1, edit);
+			h = own(h);
+			int cmp = key.compareTo(h.key);
+			if (cmp < 0) h.left = put(h.left, key, val);
+			else if (cmp > 0) h.right = put(h.right, key, val);
+			else h.val = val;
+			return balance(h);
+		}
+
+		Node<Key, Value> delete(Node<Key, Value> h, Key key) {
+			h = own(h);
+			if (key.compareTo(h.key) < 0) {
+				if (!isRed(h.left) && !isRed(h.left.left)) h = moveRedLeft(h);
+				h.left = delete(h.left, key);
+			} else {
+				if (isRed(h.left)) h = rotateRight(h);
+				if (key.compareTo(h.key) == 0 && (h.right == null)) return null;
+				if (!isRed(h.right) && !isRed(h.right.left)) h = moveRedRight(h);
+				if (key.compareTo(h.key) == 0) {
+					Node<Key, Value> x = h.right;				// replace with its successor
+					while (x.left != null) x = x.left;
+					h.key = x.key;
+					h.val = x.val;
+					h.right = deleteMin(h.right);
+				} else {
+					h.right = delete(h.right, key);
+				}
+			}
+			return balance(h);
+		}
+
+		Node<Key, Value> deleteMin(Node<Key, Value> h) {
+			if (h.left == null) return null;
+			h = own(h);
+			if (!isRed(h.left) && !isRed(h.left.left)) h = moveRedLeft(h);
+			h.left = deleteMin(h.left);
+			return balance(h);
+		}
+
+		Node<Key, Value> balance(Node<Key, Value> h) {
+			if (isRed(h.right) && !isRed(h.left)) h = rotateLeft(h);
+			if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
+			if (isRed(h.left) && isRed(h.right)) flipColors(h);
+			h.size = size(h.left) + size(h.right) + 1;
+			return h;
+		}
+
+		Node<Key, Value> rotateLeft(Node<Key, Value> h) {
+			Node<Key, Value> x = own(h.right);
+			h.right = x.left;
+			x.left = h;
+			x.color = h.color;
+			h.color = RED;
+			x.size = h.size;
+			h.size = size(h.left) + size(h.right) + 1;
+			return x;
+		}
+
+		Node<Key, Value> rotateRight(Node<Key, Value> h) {
+			Node<Key, Value> x = own(h.left);
+			h.left = x.right;
+			x.right = h;
+			x.color = h.color;
+			h.color = RED;
+			x.size = h.size;
+			h.size = size(h.left) + size(h.right) + 1;
+			return x;
+		}
+
+		void flipColors(Node<Key, Value> h) {
+			h.left = own(h.left);
+			h.right = own(h.right);
+			h.color = !h.color;
+			h.left.color = !h.left.color;
+			h.right.color = !h.right.color;
+		}
+
+		Node<Key, Value> moveRedLeft(Node<Key, Value> h) {
+			flipColors(h);
+			if (isRed(h.right.left)) {
+				h.right = rotateRight(h.right);				// h.right is owned by flipColors
+				h = rotateLeft(h);
+				flipColors(h);
+			}
+			return h;
+		}
+
+		Node<Key, Value> moveRedRight(Node<Key, Value> h) {
+			flipColors(h);
+			if (isRed(h.left.left)) {
+				h = rotateRight(h);
+				flipColors(h);
+			}
+			return h;
+		}
+	}
+
+	/**
+	 * Returns the keys of this version in order.
+	 * @return
+	 */
+	public Iterable<Key> keys() {
+		return this;
+	}
+
+	/**
+	 * @return an iterator over the keys of this version in order
+	 */
+	public Iterator<Key> iterator() {
+		return new InOrderIterator();
+	}
+
+	/**
+	 * Walks this version with an explicit stack of Nodes.
+	 */
+	private class InOrderIterator implements Iterator<Key> {
+		private Node<Key, Value>[] stack = newStack(64);
+		private int depth;
+
+		InOrderIterator() {
+			pushLeft(root);
+		}
+
+		@SuppressWarnings("unchecked")
+		private Node<Key, Value>[] newStack(int capacity) {
+			return (Node<Key, Value>[]) new Node<?, ?>[capacity];
+		}
+
+		private void pushLeft(Node<Key, Value> x) {
+			for (; x != null; x = x.left) {
+				if (depth == stack.length) stack = Arrays.copyOf(stack, 2 * stack.length);
+				stack[depth++] = x;
+			}
+		}
+
+		public boolean hasNext() {
+			return depth > 0;
+		}
+
+		// an iterator, doesn't implement remove() since it's optional
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+
+		public Key next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			Node<Key, Value> x = stack[--depth];
+			pushLeft(x.right);
+			return x.key;
+		}
+	}
+
+}
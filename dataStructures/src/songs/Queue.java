@@ -10,73 +10,96 @@ import java.util.NoSuchElementException;
 /**
  * @author Damien Pitman
  *
+ * Items are kept in a circular array that doubles when full and halves when
+ * a quarter full, so enqueue allocates nothing except when the array grows
+ * and iteration reads consecutive slots.
+ *
  * @param <Item>
  */
 public class Queue<Item> implements Iterable<Item>{
-	
-	private Node front; 		// Node to be first out
-	private Node back; 			// Node to be last out
+
+	private static final int MIN_CAPACITY = 8; 	// power of two, so wrap around is a mask
+
+	private Item[] items; 		// circular array of items, length is a power of two
+	private int front; 			// index of the item to be first out
 	private int n; 				// size of the Queue (default 0)
-	
+	private int highWater; 		// largest n since created or reset, see QueueMetrics
+
+	@SuppressWarnings("unchecked")
 	public Queue() {
+		items = (Item[]) new Object[MIN_CAPACITY];
 	}
-	
-	private class Node {
-		private Item item; 		// Inherits Item type from Queue<Item>
-		private Node next; 		// which Node is next 
-		
-		/**
-		 * Constructs a Node with input
-		 * @param item
-		 * @param next
-		 */
-		public Node(Item item, Node next) {
-			this.item = item;
-			this.next = next;
-		}
-		
-		public Item get() {
-			return this.item;
-		}
-
-		public Node getNext() {
-			return this.next;
-		}
 
-		public void set(Item item) {
-			this.item = item;
-		}
-		
-		public void setNext(Node next) {
-			this.next = next;
-		}
-		
+	/**
+	 * @return the item to be last out, the most recently enqueued
+	 */
+	public Item getBack() {
+		if (isEmpty()) throw new NoSuchElementException("Queue underflow");
+		return items[(front + n - 1) & (items.length - 1)];
 	}
-	
-	public Node getBack() {
-		return back;
+
+	/**
+	 * @return the item to be first out, without removing it
+	 */
+	public Item peek() {
+		if (isEmpty()) throw new NoSuchElementException("Queue underflow");
+		return items[front];
 	}
 
-	public void enqueue(Item item) { 	// place new node at back of the queue
-		Node oldback = back; 			// initialize holder for old back of Queue
-		back = new Node(item, null); 	// initialize new back of Queue
-		if (isEmpty()) front = back;	// only one node, so front is back
-		else oldback.next = back;	 	// update the pointer from the old back to be the new back
+	public void enqueue(Item item) { 	// place item at back of the queue
+		if (n == items.length) resize(2 * items.length);	// full, double the array
+		items[(front + n) & (items.length - 1)] = item;	// slot after the old back, wrapping around
 		n++; 							// increment size
+		if (n > highWater) highWater = n;
 	}
-	
-	public Item dequeue() {				// remove node from front of queue and return its Item
-		Item item = front.item;	 		// get front Item
-		front = front.next;		 		// assign second Node to front position
-		if (isEmpty()) { 				// no one left at front of Queue
-			back = null;				// so the Queue is null
-		}
+
+	public Item dequeue() {				// remove item from front of queue and return it
+		if (isEmpty()) throw new NoSuchElementException("Queue underflow");
+		Item item = items[front];	 	// get front Item
+		items[front] = null;			// do not hold on to the item
+		front = (front + 1) & (items.length - 1);	// next item is now at the front
 		n--; 							// decrement size
+		if (n > 0 && n == items.length / 4 && items.length > MIN_CAPACITY) resize(items.length / 2);
 		return item;
 	}
-	
+
+	/**
+	 * Copies the items, in order, to the start of a new array.
+	 * @param capacity a power of two at least n
+	 */
+	@SuppressWarnings("unchecked")
+	private void resize(int capacity) {
+		Item[] copy = (Item[]) new Object[capacity];
+		for (int i = 0; i < n; i++) {
+			copy[i] = items[(front + i) & (items.length - 1)];
+		}
+		items = copy;
+		front = 0;
+	}
+
 	public boolean isEmpty() {
-		return front == null;
+		return n == 0;
+	}
+
+	/**
+	 * @return the number of items in the Queue
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * @return the largest size since the Queue was created or the mark was reset
+	 */
+	public int highWaterMark() {
+		return highWater;
+	}
+
+	/**
+	 * Sets the high-water mark back to the current size.
+	 */
+	public void resetHighWaterMark() {
+		highWater = n;
 	}
 
 	/**
@@ -84,33 +107,26 @@ public class Queue<Item> implements Iterable<Item>{
      * @return an iterator. The FIFO order is determined by enqueue() and next()
      */
 	public Iterator<Item> iterator()  {
-        return new ListIterator(front);  
+        return new ArrayIterator();
     }
 
-	private class ListIterator implements Iterator<Item> {
-	    Node current;
+	private class ArrayIterator implements Iterator<Item> {
+	    int i; 		// number of items already returned
 
-	    public ListIterator(Node front) {
-	        current = front;
+		public boolean hasNext() {
+	    	return i < n;
 	    }
 
-		public boolean hasNext() { 
-	    	return current != null;                 
-	    }
-	    
 	    // an iterator, doesn't implement remove() since it's optional
-		public void remove() { 
-	    	throw new UnsupportedOperationException();  
+		public void remove() {
+	    	throw new UnsupportedOperationException();
 	    }
 
 		public Item next() {
 	        if (!hasNext()) throw new NoSuchElementException();
-	        Item item = current.item;
-	        current = current.next;
-	        return item;
+	        return items[(front + i++) & (items.length - 1)];
 	    }
 
 	}
 
 }
-
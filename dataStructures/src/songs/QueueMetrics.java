@@ -0,0 +1,52 @@
+/**
+ * Depth and high-water mark of a Queue, readable through JMX.
+ */
+package songs;
+
+import javax.management.ObjectName;
+
+/**
+ * A view of a Queue, it reads the counts the Queue keeps itself, so it costs
+ * the Queue nothing. Queue is not thread safe, so a reader on another thread,
+ * such as JMX, may see counts that are slightly out of date.
+ */
+public class QueueMetrics implements QueueMetricsMXBean {
+
+	private final Queue<?> queue;
+
+	public QueueMetrics(Queue<?> queue) {
+		if (queue == null) throw new IllegalArgumentException("queue is null");
+		this.queue = queue;
+	}
+
+	public int getDepth() {
+		return queue.size();
+	}
+
+	public int getHighWaterMark() {
+		return queue.highWaterMark();
+	}
+
+	public void resetHighWaterMark() {
+		queue.resetHighWaterMark();
+	}
+
+	/**
+	 * Registers these metrics with the platform MBeanServer as songs:type=Queue,name=name.
+	 * @param name
+	 * @return
+	 */
+	public ObjectName register(String name) {
+		return Metrics.register(this, "Queue", name);
+	}
+
+	public void unregister(ObjectName objectName) {
+		Metrics.unregister(objectName);
+	}
+
+	@Override
+	public String toString() {
+		return "depth=" + getDepth() + " highWaterMark=" + getHighWaterMark();
+	}
+
+}
@@ -0,0 +1,23 @@
+/**
+ * Management interface of QueueMetrics, for JMX.
+ */
+package songs;
+
+public interface QueueMetricsMXBean {
+
+	/**
+	 * @return number of items in the Queue now
+	 */
+	int getDepth();
+
+	/**
+	 * @return largest depth since the Queue was created or the mark was reset
+	 */
+	int getHighWaterMark();
+
+	/**
+	 * Sets the high-water mark back to the current depth.
+	 */
+	void resetHighWaterMark();
+
+}
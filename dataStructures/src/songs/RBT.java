@@ -3,7 +3,16 @@
  */
 package songs;
 
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author Damien Pitman
@@ -11,16 +20,44 @@ import java.util.Iterator;
  * @param <Key>
  * @param <Value>
  */
-public class RBT<Key extends Comparable<Key>, Value> {
+public class RBT<Key extends Comparable<Key>, Value> implements Iterable<Key> {
 	
 	private Node root;
+	private Node[] path;				// search path reused by put, avoids recursion, null until needed
+	private int modCount; 				// number of structural changes, checked by iterators
+	private RBTMetrics metrics; 		// null unless enableMetrics() was called
 	private static final boolean RED = true;
 	private static final boolean BLACK = false;
 	
 	public RBT() {
 	}
 	
-	private class Node {		
+	/**
+	 * Starts counting operations, comparisons, rotations and color flips,
+	 * and timing get, put and delete. Until then each operation only checks
+	 * that metrics are off.
+	 * @return the metrics of this RBT, the same object until disableMetrics()
+	 */
+	public RBTMetrics enableMetrics() {
+		if (metrics == null) metrics = new RBTMetrics();
+		return metrics;
+	}
+	
+	/**
+	 * Stops counting, the RBTMetrics returned earlier keep their last counts.
+	 */
+	public void disableMetrics() {
+		metrics = null;
+	}
+	
+	/**
+	 * @return the metrics of this RBT, or null if they are off
+	 */
+	public RBTMetrics metrics() {
+		return metrics;
+	}
+	
+	private class Node implements Map.Entry<Key, Value> {		
 		Key key;
 		Value val;
 		Node left, right; 	// children - left lesser - right greater
@@ -32,9 +69,53 @@ public class RBT<Key extends Comparable<Key>, Value> {
 			this.size = size;
 			this.color = color;
 		}
+		
+		public Key getKey() {
+			return key;
+		}
+		
+		public Value getValue() {
+			return val;
+		}
+		
+		// entries handed out by stream() are read only, use put() to change a value
+		public Value setValue(Value val) {
+			throw new UnsupportedOperationException();
+		}
+		
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Map.Entry)) return false;
+			Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+			return key.equals(e.getKey()) && val.equals(e.getValue());
+		}
+		
+		@Override
+		public int hashCode() {
+			return key.hashCode() ^ val.hashCode();
+		}
+		
+		@Override
+		public String toString() {
+			return key + "=" + val;
+		}
 
 	}
 		
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private Node[] newPath(int capacity) {
+		return (Node[]) new RBT.Node[capacity];
+	}
+	
+	/**
+	 * Room for a search path or traversal stack of this RBT, whose height is
+	 * at most 2 lg n + 2, so the many small RBTs a SongCatalog holds get small arrays.
+	 * Paths and stacks still grow if the RBT gets taller.
+	 */
+	private int pathCapacity() {
+		return 2 * (33 - Integer.numberOfLeadingZeros(size()));
+	}
+	
 	private boolean isRed(Node x) {
 		if (x == null) return false;
 		return x.color == RED;
@@ -42,75 +123,284 @@ public class RBT<Key extends Comparable<Key>, Value> {
 	
 	/**
 	 * Returns the value associated with input key.
-	 * Calls recursive private method get(Node, Key)
+	 * Walks down from the root iteratively, so no stack frame is used per level.
 	 * @param key
 	 * @return
 	 */
 	public Value get(Key key) {
-		return get(root, key);
+		if (key == null) throw new IllegalArgumentException("called get() with null key");
+		RBTMetrics m = metrics;
+		if (m == null) {
+			Node x = search(key);
+			return (x == null) ? null : x.val; 		// null if no value associated to key
+		}
+		long start = System.nanoTime();
+		Node x = search(key);
+		m.get(System.nanoTime() - start);
+		return (x == null) ? null : x.val;
 	}
 	
 	/**
-	 * Returns value associated with key, passed to get(Key key).
-	 * Recursively traverses RBT searching for key.
-	 * 
-	 * @param x
 	 * @param key
-	 * @return
+	 * @return the Node holding key, or null
 	 */
-	private Value get(Node x, Key key) {
-		if (key == null) throw new IllegalArgumentException("called get() with null key");
-		if (x == null) return null; 				// no value associated to key
-		int cmp = key.compareTo(x.key);				// determines direction of traversal
-		if (cmp < 0) return get(x.left, key); 		// recursive call to get from left subtree
-		else if (cmp > 0) return get(x.right, key); // recursive call to get from right subtree
-		else return x.val; 							// cmp == 0 => key found => return value
+	private Node search(Key key) {
+		int compares = 0; 							// counted in a local, metrics are usually off
+		Node x = root;
+		while (x != null) {
+			int cmp = key.compareTo(x.key);			// determines direction of traversal
+			compares++;
+			if (cmp < 0) x = x.left; 				// continue in left subtree
+			else if (cmp > 0) x = x.right; 			// continue in right subtree
+			else break; 							// cmp == 0 => key found
+		}
+		if (metrics != null) metrics.comparisons += compares;
+		return x;
 	}
 	
 	/**
 	 * Puts key, val pair into RBT at appropriate place with appropriate color.
 	 * Updates entire BST to be an RBT.
-	 * Calls recursive private method Node = put(Node, Key, Value).
+	 * Searches iteratively, recording the search path in a reusable array,
+	 * then rebalances bottom-up along that path.
+	 * Only the new Node is allocated.
+	 * A null val deletes key from the RBT.
 	 * @param key
 	 * @param val
 	 */
 	public void put(Key key, Value val) {
 		if (key == null) throw new IllegalArgumentException("first argument to put() is null");
-		if (val == null) throw new IllegalArgumentException("called get() with null value");
-		/* TODO
 		if (val == null) {
 			delete(key); 
 			return;
 		}
-		*/
-		root = put(root, key, val);
+		RBTMetrics m = metrics;
+		long start = (m == null) ? 0 : System.nanoTime();
+		int depth = 0;
+		int cmp = 0;
+		Node x = root;
+		if (path == null && x != null) path = newPath(pathCapacity());
+		while (x != null) {
+			cmp = key.compareTo(x.key); 					// determines direction of traversal
+			if (cmp == 0) {									// found key already in tree
+				x.val = val;								// no structural change, sizes stay the same
+				if (m != null) m.put(depth + 1, System.nanoTime() - start);
+				return;
+			}
+			if (depth == path.length) growPath();
+			path[depth++] = x;
+			x = (cmp < 0) ? x.left : x.right;
+		}
+		
+		// found appropriate null leaf, hang the new Node below the last Node on the path
+		// then walk back up, relinking each rebalanced subtree into its parent
+		int compares = depth;
+		Node h = new Node(key, val, RED, 1);
+		modCount++;
+		boolean left = cmp < 0;
+		while (depth > 0) {
+			Node parent = path[--depth];
+			path[depth] = null;								// do not hold on to Nodes between calls
+			if (left) parent.left = h;
+			else parent.right = h;
+			if (depth > 0) left = path[depth - 1].left == parent; // side of parent before it is rebalanced
+			h = balance(parent);
+		}
+		root = h;
 		root.color = BLACK;		
-		// TODO assert check();
+		if (m != null) m.put(compares, System.nanoTime() - start);
+		assert check();
 	}
 	
 	/**
-	 * Recursively searches RBT for leaf to input key, val pair.
-	 * Then recursively updates all nodes to maintain RBT.
+	 * Restores RBT structure at Node h after one of its subtrees changed.
+	 * Also updates the size of h.
 	 * @param h
-	 * @param key
-	 * @param val
-	 * @return
+	 * @return the Node now at the top of this subtree
 	 */
-	private Node put(Node h, Key key, Value val) { 
-		if (h == null) return new Node(key, val, RED, 1); 	// found appropriate null leaf
-		
-		int cmp = key.compareTo(h.key); 					// determines direction of traversal
-		if (cmp < 0) h.left = put(h.left, key, val);		// recursive call to left subtree
-		else if (cmp > 0) h.right = put (h.right, key, val);// recursive call to right subtree
-		else h.val = val;									// found key already in tree
-		
-		// Maintain RBT structure
+	private Node balance(Node h) {
 		if (isRed(h.right) && !isRed(h.left)) h = rotateLeft(h);
 		if (isRed(h.left) && isRed(h.left.left)) h = rotateRight(h);
 		if (isRed(h.left) && isRed(h.right)) flipColors(h);
 		h.size = size(h.left) + size(h.right) + 1; 		// update size
 		return h;
-	} 
+	}
+	
+	/**
+	 * Doubles the capacity of the search path used by put.
+	 * The height of an RBT is at most 2 lg n, so this rarely happens.
+	 */
+	private void growPath() {
+		path = Arrays.copyOf(path, 2 * path.length);
+	}
+	
+	/**
+	 * Builds an RBT from keys in strictly increasing order in O(n),
+	 * with no comparisons beyond checking the order and no rotations.
+	 * @param keys in strictly increasing order
+	 * @param vals vals[i] is the value for keys[i]
+	 * @return
+	 */
+	public static <Key extends Comparable<Key>, Value> RBT<Key, Value> fromSorted(Key[] keys, Value[] vals) {
+		if (keys == null) throw new IllegalArgumentException("first argument to fromSorted() is null");
+		if (vals == null) throw new IllegalArgumentException("second argument to fromSorted() is null");
+		if (keys.length != vals.length) throw new IllegalArgumentException("fromSorted() needs one value per key");
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] == null) throw new IllegalArgumentException("called fromSorted() with null key");
+			if (vals[i] == null) throw new IllegalArgumentException("called fromSorted() with null value");
+			if (i > 0 && keys[i - 1].compareTo(keys[i]) >= 0) {
+				throw new IllegalArgumentException("fromSorted() keys not in strictly increasing order at index " + i);
+			}
+		}
+		RBT<Key, Value> rbt = new RBT<Key, Value>();
+		rbt.root = rbt.build(keys, vals, 0, keys.length, blackHeight(keys.length));
+		assert rbt.check();
+		return rbt;
+	}
+	
+	/**
+	 * Builds an RBT from key, value pairs in strictly increasing key order in O(n).
+	 * @param entries iterator over pairs in strictly increasing key order
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	public static <Key extends Comparable<Key>, Value> RBT<Key, Value> fromSorted(Iterator<? extends Map.Entry<Key, Value>> entries) {
+		if (entries == null) throw new IllegalArgumentException("called fromSorted() with null iterator");
+		Queue<Map.Entry<Key, Value>> queue = new Queue<Map.Entry<Key, Value>>();
+		int n = 0;
+		while (entries.hasNext()) {
+			queue.enqueue(entries.next());
+			n++;
+		}
+		Key[] keys = (Key[]) new Comparable<?>[n];
+		Value[] vals = (Value[]) new Object[n];
+		for (int i = 0; i < n; i++) {
+			Map.Entry<Key, Value> e = queue.dequeue();
+			keys[i] = e.getKey();
+			vals[i] = e.getValue();
+		}
+		return fromSorted(keys, vals);
+	}
+	
+	/**
+	 * Puts every keys[i], vals[i] pair into RBT, with the same result as calling
+	 * put(keys[i], vals[i]) for i in order: later values win, a key already 
+	 * in RBT keeps its Key object, and a null value deletes its key.
+	 * Sorts the input (skipped if already sorted), merges it with the keys 
+	 * in RBT and rebuilds in O(n + m log m) instead of O(m log(n + m)) puts.
+	 * @param keys
+	 * @param vals vals[i] is the value for keys[i]
+	 */
+	@SuppressWarnings("unchecked")
+	public void putAll(Key[] keys, Value[] vals) {
+		if (keys == null) throw new IllegalArgumentException("first argument to putAll() is null");
+		if (vals == null) throw new IllegalArgumentException("second argument to putAll() is null");
+		if (keys.length != vals.length) throw new IllegalArgumentException("putAll() needs one value per key");
+		int m = keys.length;
+		boolean sorted = true;
+		for (int i = 0; i < m; i++) {
+			if (keys[i] == null) throw new IllegalArgumentException("called putAll() with null key");
+			if (i > 0 && sorted && keys[i - 1].compareTo(keys[i]) > 0) sorted = false;
+		}
+		if (!sorted) {											// stable sort, so equal keys stay in input order
+			Integer[] order = new Integer[m];
+			for (int i = 0; i < m; i++) order[i] = i;
+			Arrays.sort(order, (i, j) -> keys[i].compareTo(keys[j]));
+			Key[] k = (Key[]) new Comparable<?>[m];
+			Value[] v = (Value[]) new Object[m];
+			for (int i = 0; i < m; i++) {
+				k[i] = keys[order[i]];
+				v[i] = vals[order[i]];
+			}
+			putAllSorted(k, v);
+		} else {
+			putAllSorted(keys, vals);
+		}
+	}
+	
+	/**
+	 * Merges keys, in nondecreasing order, with the keys in RBT and rebuilds.
+	 * @param keys
+	 * @param vals
+	 */
+	@SuppressWarnings("unchecked")
+	private void putAllSorted(Key[] keys, Value[] vals) {
+		int n = size();
+		int m = keys.length;
+		Key[] mergedKeys = (Key[]) new Comparable<?>[n + m];
+		Value[] mergedVals = (Value[]) new Object[n + m];
+		InOrderIterator old = new InOrderIterator(null, null);
+		int count = 0;
+		Node next = old.hasNext() ? old.nextNode() : null;
+		for (int i = 0; i < m || next != null; ) {
+			int cmp;
+			if (i == m) cmp = -1;
+			else if (next == null) cmp = 1;
+			else cmp = next.key.compareTo(keys[i]);
+			if (cmp < 0) {										// only in RBT
+				mergedKeys[count] = next.key;
+				mergedVals[count++] = next.val;
+				next = old.hasNext() ? old.nextNode() : null;
+			} else {
+				Key key = (cmp == 0) ? next.key : keys[i];		// a key already in RBT keeps its Key object
+				if (cmp == 0) next = old.hasNext() ? old.nextNode() : null;
+				Value val = vals[i++];
+				while (i < m && keys[i].compareTo(key) == 0) val = vals[i++];	// last value for the same key wins
+				if (val == null) continue;						// null value deletes key
+				mergedKeys[count] = key;
+				mergedVals[count++] = val;
+			}
+		}
+		root = build(mergedKeys, mergedVals, 0, count, blackHeight(count));
+		modCount++;
+		assert check();
+	}
+	
+	/**
+	 * Returns the largest number of BLACK links on every path of an RBT with n nodes,
+	 * the largest h with 2^h - 1 <= n.
+	 * @param n
+	 * @return
+	 */
+	private static int blackHeight(int n) {
+		return 31 - Integer.numberOfLeadingZeros(n + 1);
+	}
+	
+	/**
+	 * Recursively builds an RBT from keys[lo, lo + n) that has exactly bh BLACK links on 
+	 * every path from its BLACK root to a null leaf.
+	 * A subtree of black height bh holds between 2^bh - 1 and 3^bh - 1 nodes.
+	 * The root is a 2-node when the remaining n - 1 nodes fit in two such 
+	 * subtrees of black height bh - 1, and a 3-node (BLACK Node with a RED left
+	 * child) otherwise. Nodes are split as evenly as possible between subtrees.
+	 * @param keys
+	 * @param vals
+	 * @param lo
+	 * @param n
+	 * @param bh
+	 * @return
+	 */
+	private Node build(Key[] keys, Value[] vals, int lo, int n, int bh) {
+		if (n == 0) return null;
+		long most = (long) Math.pow(3, bh - 1) - 1; 			// most nodes in a subtree of black height bh - 1
+		if (n - 1 <= 2 * most) {								// 2-node
+			int a = (n - 1) / 2;
+			Node h = new Node(keys[lo + a], vals[lo + a], BLACK, n);
+			h.left = build(keys, vals, lo, a, bh - 1);
+			h.right = build(keys, vals, lo + a + 1, n - 1 - a, bh - 1);
+			return h;
+		}
+		int a = (n - 2) / 3; 									// 3-node
+		int b = (n - 2 - a) / 2;
+		int c = n - 2 - a - b;
+		Node red = new Node(keys[lo + a], vals[lo + a], RED, a + b + 1);
+		red.left = build(keys, vals, lo, a, bh - 1);
+		red.right = build(keys, vals, lo + a + 1, b, bh - 1);
+		Node h = new Node(keys[lo + a + b + 1], vals[lo + a + b + 1], BLACK, n);
+		h.left = red;
+		h.right = build(keys, vals, lo + a + b + 2, c, bh - 1);
+		return h;
+	}
 
 	
 	/**
@@ -118,7 +408,22 @@ public class RBT<Key extends Comparable<Key>, Value> {
 	 * @return
 	 */
 	public int size() {
-		return root.size;
+		return size(root);
+	}
+	
+	/**
+	 * @return true if RBT has no nodes
+	 */
+	public boolean isEmpty() {
+		return root == null;
+	}
+	
+	/**
+	 * @param key
+	 * @return true if key has a value in RBT
+	 */
+	public boolean contains(Key key) {
+		return get(key) != null;
 	}
 	
 	/**
@@ -138,11 +443,14 @@ public class RBT<Key extends Comparable<Key>, Value> {
 	 * @return
 	 */
 	private Node rotateLeft(Node h) {
+		if (metrics != null) metrics.leftRotations++;
 		Node x = h.right;
 		h.right = x.left;
 		x.left = h;
 		x.color = h.color;
 		h.color = RED;
+		x.size = h.size;								// x now roots the whole subtree
+		h.size = size(h.left) + size(h.right) + 1;
 		return x;
 	}
 	
@@ -153,46 +461,198 @@ public class RBT<Key extends Comparable<Key>, Value> {
 	 * @return
 	 */
 	private Node rotateRight(Node h) {
+		if (metrics != null) metrics.rightRotations++;
 		Node x = h.left;
 		h.left = x.right;
 		x.right = h;
 		x.color = h.color;
 		h.color = RED;
+		x.size = h.size;								// x now roots the whole subtree
+		h.size = size(h.left) + size(h.right) + 1;
 		return x;
 	}
 
 	/**
 	 * Updates Nodes to ultimately get RBT structure.
-	 * Will only be called when parent is BLACK and both children are RED.
+	 * Flips the colors of Node h and both its children.
+	 * Called by put when parent is BLACK and both children are RED,
+	 * and by delete when parent is RED and both children are BLACK.
 	 * @param h
 	 */
 	private void flipColors(Node h) {
-		h.color = RED;
-		h.left.color = BLACK;
-		h.right.color = BLACK;
+		if (metrics != null) metrics.colorFlips++;
+		h.color = !h.color;
+		h.left.color = !h.left.color;
+		h.right.color = !h.right.color;
+	}
+	
+	/**
+	 * Assuming h is RED and both h.left and h.left.left are BLACK,
+	 * makes h.left or one of its children RED.
+	 * @param h
+	 * @return
+	 */
+	private Node moveRedLeft(Node h) {
+		flipColors(h);
+		if (isRed(h.right.left)) { 					// borrow from right sibling
+			h.right = rotateRight(h.right);
+			h = rotateLeft(h);
+			flipColors(h);
+		}
+		return h;
+	}
+	
+	/**
+	 * Assuming h is RED and both h.right and h.right.left are BLACK,
+	 * makes h.right or one of its children RED.
+	 * @param h
+	 * @return
+	 */
+	private Node moveRedRight(Node h) {
+		flipColors(h);
+		if (isRed(h.left.left)) { 					// borrow from left sibling
+			h = rotateRight(h);
+			flipColors(h);
+		}
+		return h;
 	}
 
 	/**
-	 * Returns a Queue, which is iterable.
-	 * Calls private recursive method keys(Node, Queue).
+	 * Returns the keys of RBT in order.
+	 * Keys are not copied, the tree is walked lazily as the caller iterates.
 	 * @return
 	 */
-	public Queue<Key> keys() {
-		Queue<Key> queue = new Queue<Key>();
-		keys(root, queue);
-		return queue;
+	public Iterable<Key> keys() {
+		return () -> new InOrderIterator(null, null);
 	}
 	
 	/**
-	 * Recursively enqueues Key of Node.
-	 * @param x
-	 * @param queue
+	 * Returns the keys in RBT between lo and hi (inclusive), in order.
+	 * Only subtrees that can hold keys in range are visited,
+	 * and iteration stops at the first key greater than hi.
+	 * @param lo
+	 * @param hi
+	 * @return
+	 */
+	public Iterable<Key> keys(Key lo, Key hi) {
+		if (lo == null) throw new IllegalArgumentException("first argument to keys() is null");
+		if (hi == null) throw new IllegalArgumentException("second argument to keys() is null");
+		return () -> new InOrderIterator(lo, hi);
+	}
+	
+	/**
+	 * Returns number of keys in RBT between lo and hi (inclusive).
+	 * @param lo
+	 * @param hi
+	 * @return
+	 */
+	public int size(Key lo, Key hi) {
+		if (lo == null) throw new IllegalArgumentException("first argument to size() is null");
+		if (hi == null) throw new IllegalArgumentException("second argument to size() is null");
+		if (lo.compareTo(hi) > 0) return 0;
+		if (search(hi) != null) return rank(hi) - rank(lo) + 1; 	// not contains(), a range count is not a get
+		else return rank(hi) - rank(lo);
+	}
+	
+	/**
+	 * @return the smallest key in RBT
+	 */
+	public Key min() {
+		if (isEmpty()) throw new NoSuchElementException("called min() on empty RBT");
+		return min(root).key;
+	}
+	
+	/**
+	 * @return the largest key in RBT
+	 */
+	public Key max() {
+		if (isEmpty()) throw new NoSuchElementException("called max() on empty RBT");
+		Node x = root;
+		while (x.right != null) x = x.right;
+		return x.key;
+	}
+	
+	/**
+	 * Returns the number of keys in RBT strictly less than key.
+	 * Walks down from the root, adding the size of every left subtree passed over.
+	 * @param key
+	 * @return
+	 */
+	public int rank(Key key) {
+		if (key == null) throw new IllegalArgumentException("called rank() with null key");
+		int rank = 0;
+		Node x = root;
+		while (x != null) {
+			int cmp = key.compareTo(x.key);
+			if (cmp < 0) x = x.left;
+			else if (cmp > 0) {
+				rank += size(x.left) + 1;						// x and its left subtree are less than key
+				x = x.right;
+			}
+			else return rank + size(x.left);
+		}
+		return rank;
+	}
+	
+	/**
+	 * Returns the key of rank k, the kth smallest key in RBT (counting from 0).
+	 * @param k
+	 * @return
 	 */
-	private void keys(Node x, Queue<Key> queue) {
-		if (x == null) return;
-		keys(x.left, queue);
-		queue.enqueue(x.key);
-		keys(x.right, queue);
+	public Key select(int k) {
+		if (k < 0 || k >= size()) throw new IllegalArgumentException("called select() with invalid rank: " + k);
+		Node x = root;
+		while (true) {
+			int t = size(x.left);
+			if (t > k) x = x.left;
+			else if (t < k) {
+				k = k - t - 1;									// skip x and its left subtree
+				x = x.right;
+			}
+			else return x.key;
+		}
+	}
+	
+	/**
+	 * Returns the largest key in RBT less than or equal to key.
+	 * @param key
+	 * @return null if there is no such key
+	 */
+	public Key floor(Key key) {
+		if (key == null) throw new IllegalArgumentException("called floor() with null key");
+		Key floor = null;
+		Node x = root;
+		while (x != null) {
+			int cmp = key.compareTo(x.key);
+			if (cmp < 0) x = x.left;
+			else if (cmp > 0) {
+				floor = x.key;									// best candidate so far
+				x = x.right;
+			}
+			else return x.key;
+		}
+		return floor;
+	}
+	
+	/**
+	 * Returns the smallest key in RBT greater than or equal to key.
+	 * @param key
+	 * @return null if there is no such key
+	 */
+	public Key ceiling(Key key) {
+		if (key == null) throw new IllegalArgumentException("called ceiling() with null key");
+		Key ceiling = null;
+		Node x = root;
+		while (x != null) {
+			int cmp = key.compareTo(x.key);
+			if (cmp > 0) x = x.right;
+			else if (cmp < 0) {
+				ceiling = x.key;								// best candidate so far
+				x = x.left;
+			}
+			else return x.key;
+		}
+		return ceiling;
 	}
 	
 	/**
@@ -215,75 +675,559 @@ public class RBT<Key extends Comparable<Key>, Value> {
 		return 1 + Math.max(height(x.left), height(x.right));
 	}
 
-	private void delete(Key key) {
-		// TODO Auto-generated method stub
-		
+	/**
+	 * Removes key and its value from RBT, if key is present.
+	 * Calls recursive private method Node = delete(Node, Key).
+	 * @param key
+	 */
+	public void delete(Key key) {
+		if (key == null) throw new IllegalArgumentException("called delete() with null key");
+		RBTMetrics m = metrics;
+		long start = (m == null) ? 0 : System.nanoTime();
+		if (search(key) == null) return; 					// not a get, so not counted as one
+		if (!isRed(root.left) && !isRed(root.right)) root.color = RED;
+		root = delete(root, key);
+		modCount++;
+		if (!isEmpty()) root.color = BLACK;
+		if (m != null) m.delete(System.nanoTime() - start);
+		assert check();
 	}
 	
-	// All code below is a work in progress.
+	/**
+	 * Recursively removes key from subtree of Node h, keeping a RED link
+	 * on the search path so the Node removed is never a lone BLACK Node.
+	 * Then recursively updates all nodes to maintain RBT.
+	 * @param h
+	 * @param key
+	 * @return
+	 */
+	private Node delete(Node h, Key key) {
+		if (compare(key, h.key) < 0) {							// key is in left subtree
+			if (!isRed(h.left) && !isRed(h.left.left)) h = moveRedLeft(h);
+			h.left = delete(h.left, key);
+		} else {
+			if (isRed(h.left)) h = rotateRight(h);
+			if (compare(key, h.key) == 0 && (h.right == null)) return null;	// found key at bottom
+			if (!isRed(h.right) && !isRed(h.right.left)) h = moveRedRight(h);
+			if (compare(key, h.key) == 0) {						// found key higher up
+				Node x = min(h.right);							// replace with its successor
+				h.key = x.key;
+				h.val = x.val;
+				h.right = deleteMin(h.right);
+			} else {
+				h.right = delete(h.right, key);
+			}
+		}
+		return balance(h);
+	}
 	
-	/*
-	@Deprecated
-    public Iterator<Key> iterator() {
-        return rbt.keySet().iterator();
-    }
-    */
-
-	public Queue<Key> levelOrder() {
-		Queue<Key> keys = new Queue<Key>();
-		Queue<Node> queue = new Queue<Node>();
-		queue.enqueue(root);
-		while (!queue.isEmpty()) {
-			Node x = queue.dequeue();
-			if (x == null) continue;
-			else {
-				keys.enqueue(x.key);
-				queue.enqueue(x.left);
-				queue.enqueue(x.right);
+	/**
+	 * Compares a to b, counting the comparison if metrics are on.
+	 * Used by delete, search and put count in a local instead.
+	 * @param a
+	 * @param b
+	 * @return
+	 */
+	private int compare(Key a, Key b) {
+		if (metrics != null) metrics.comparisons++;
+		return a.compareTo(b);
+	}
+	
+	/**
+	 * Removes the smallest key and its value from RBT.
+	 * Calls recursive private method Node = deleteMin(Node).
+	 */
+	public void deleteMin() {
+		if (isEmpty()) throw new NoSuchElementException("called deleteMin() on empty RBT");
+		long start = (metrics == null) ? 0 : System.nanoTime();
+		if (!isRed(root.left) && !isRed(root.right)) root.color = RED;
+		root = deleteMin(root);
+		modCount++;
+		if (!isEmpty()) root.color = BLACK;
+		if (metrics != null) metrics.delete(System.nanoTime() - start);
+		assert check();
+	}
+	
+	/**
+	 * Recursively removes the smallest key from subtree of Node h.
+	 * @param h
+	 * @return
+	 */
+	private Node deleteMin(Node h) {
+		if (h.left == null) return null;
+		if (!isRed(h.left) && !isRed(h.left.left)) h = moveRedLeft(h);
+		h.left = deleteMin(h.left);
+		return balance(h);
+	}
+	
+	/**
+	 * Removes the largest key and its value from RBT.
+	 * Calls recursive private method Node = deleteMax(Node).
+	 */
+	public void deleteMax() {
+		if (isEmpty()) throw new NoSuchElementException("called deleteMax() on empty RBT");
+		long start = (metrics == null) ? 0 : System.nanoTime();
+		if (!isRed(root.left) && !isRed(root.right)) root.color = RED;
+		root = deleteMax(root);
+		modCount++;
+		if (!isEmpty()) root.color = BLACK;
+		if (metrics != null) metrics.delete(System.nanoTime() - start);
+		assert check();
+	}
+	
+	/**
+	 * Recursively removes the largest key from subtree of Node h.
+	 * @param h
+	 * @return
+	 */
+	private Node deleteMax(Node h) {
+		if (isRed(h.left)) h = rotateRight(h);
+		if (h.right == null) return null;
+		if (!isRed(h.right) && !isRed(h.right.left)) h = moveRedRight(h);
+		h.right = deleteMax(h.right);
+		return balance(h);
+	}
+	
+	/**
+	 * Returns the Node with the smallest key in subtree of Node x.
+	 * @param x
+	 * @return
+	 */
+	private Node min(Node x) {
+		while (x.left != null) x = x.left;
+		return x;
+	}
+	
+	/**
+	 * Checks the RBT invariants: symmetric order, subtree sizes, ranks,
+	 * no RED right links or two RED links in a row, and equal
+	 * number of BLACK links on every path from root to null leaf.
+	 * Only runs as part of an assert, so it is free unless
+	 * assertions are enabled (java -ea). Package-private so tests can call it.
+	 * @return true if all invariants hold
+	 */
+	boolean check() {
+		if (!isBST(root, null, null)) throw new IllegalStateException("RBT not in symmetric order");
+		if (!isSizeConsistent(root)) throw new IllegalStateException("RBT subtree sizes not consistent");
+		if (!isRankConsistent()) throw new IllegalStateException("RBT ranks not consistent");
+		if (!is23(root)) throw new IllegalStateException("RBT not a 2-3 tree");
+		if (!isBlackBalanced()) throw new IllegalStateException("RBT not black balanced");
+		return true;
+	}
+	
+	/**
+	 * @param x
+	 * @param min
+	 * @param max
+	 * @return true if all keys in subtree of Node x are strictly between min and max
+	 * (null means no bound)
+	 */
+	private boolean isBST(Node x, Key min, Key max) {
+		if (x == null) return true;
+		if (min != null && x.key.compareTo(min) <= 0) return false;
+		if (max != null && x.key.compareTo(max) >= 0) return false;
+		return isBST(x.left, min, x.key) && isBST(x.right, x.key, max);
+	} 
+	
+	/**
+	 * @param x
+	 * @return true if every size in subtree of Node x counts its own subtree
+	 */
+	private boolean isSizeConsistent(Node x) {
+		if (x == null) return true;
+		if (x.size != size(x.left) + size(x.right) + 1) return false;
+		return isSizeConsistent(x.left) && isSizeConsistent(x.right);
+	}
+	
+	/**
+	 * @return true if rank and select agree for every rank and every key
+	 */
+	private boolean isRankConsistent() {
+		for (int i = 0; i < size(); i++) {
+			if (i != rank(select(i))) return false;
+		}
+		for (Key key : keys()) {
+			if (key.compareTo(select(rank(key))) != 0) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * @param x
+	 * @return true if subtree of Node x has no RED right links 
+	 * and no Node connected to two RED links
+	 */
+	private boolean is23(Node x) {
+		if (x == null) return true;
+		if (isRed(x.right)) return false;
+		if (x != root && isRed(x) && isRed(x.left)) return false;
+		return is23(x.left) && is23(x.right);
+	}
+	
+	/**
+	 * @return true if all paths from root to null leaf have the same number of BLACK links
+	 */
+	private boolean isBlackBalanced() {
+		int black = 0; 								// number of BLACK links on path to min
+		Node x = root;
+		while (x != null) {
+			if (!isRed(x)) black++;
+			x = x.left;
+		}
+		return isBlackBalanced(root, black);
+	}
+	
+	private boolean isBlackBalanced(Node x, int black) {
+		if (x == null) return black == 0;
+		if (!isRed(x)) black--;
+		return isBlackBalanced(x.left, black) && isBlackBalanced(x.right, black);
+	}
+	
+	/**
+	 * @return an iterator over the keys of RBT in order
+	 */
+	public Iterator<Key> iterator() {
+		return new InOrderIterator(null, null);
+	}
+	
+	/**
+	 * @return a SIZED, SORTED Spliterator over the keys of RBT that splits by rank
+	 */
+	@Override
+	public Spliterator<Key> spliterator() {
+		return new KeySpliterator(0, size());
+	}
+	
+	/**
+	 * Returns a sequential Stream over the key, value pairs of RBT in key order.
+	 * Entries are read only.
+	 * @return
+	 */
+	public Stream<Map.Entry<Key, Value>> stream() {
+		return StreamSupport.stream(new EntrySpliterator(0, size()), false);
+	}
+	
+	/**
+	 * Returns a parallel Stream over the key, value pairs of RBT in key order.
+	 * The tree is split into rank ranges using the subtree sizes, 
+	 * so no keys are copied before the work is divided.
+	 * @return
+	 */
+	public Stream<Map.Entry<Key, Value>> parallelStream() {
+		return StreamSupport.stream(new EntrySpliterator(0, size()), true);
+	}
+	
+	/**
+	 * Covers the Nodes of rank from (inclusive) to to (exclusive).
+	 * Splitting halves the rank range, which for an RBT is close to splitting at 
+	 * subtree boundaries. Both halves know their exact size, so the Spliterator is 
+	 * SIZED and SUBSIZED. Traversal starts lazily: the first element positions an 
+	 * explicit stack at rank from by walking down with the subtree sizes, 
+	 * then continues in order like InOrderIterator.
+	 */
+	private abstract class NodeSpliterator<T> implements Spliterator<T> {
+		private Node[] stack; 					// null until traversal starts
+		private int depth;
+		private int from, to;
+		private final int expectedModCount = modCount;
+		
+		NodeSpliterator(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+		
+		abstract T element(Node x);
+		
+		abstract NodeSpliterator<T> split(int from, int to);
+		
+		/**
+		 * Pushes the path from root to the Node of rank k, 
+		 * keeping only Nodes whose keys are still to come.
+		 * @param k
+		 */
+		private void start(int k) {
+			stack = newPath(pathCapacity());
+			Node x = root;
+			while (x != null) {
+				int t = size(x.left);
+				if (k > t) {
+					k = k - t - 1;						// x and its left subtree come before rank k
+					x = x.right;
+				} else {
+					push(x);
+					if (k == t) return;
+					x = x.left;
+				}
+			}
+		}
+		
+		private void push(Node x) {
+			if (depth == stack.length) stack = Arrays.copyOf(stack, 2 * stack.length);
+			stack[depth++] = x;
+		}
+		
+		private Node nextNode() {
+			Node x = stack[--depth];
+			for (Node y = x.right; y != null; y = y.left) push(y);
+			from++;
+			return x;
+		}
+		
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (action == null) throw new NullPointerException();
+			if (expectedModCount != modCount) throw new ConcurrentModificationException();
+			if (from >= to) return false;
+			if (stack == null) start(from);
+			action.accept(element(nextNode()));
+			return true;
+		}
+		
+		public void forEachRemaining(Consumer<? super T> action) {
+			if (action == null) throw new NullPointerException();
+			if (expectedModCount != modCount) throw new ConcurrentModificationException();
+			if (from >= to) return;
+			if (stack == null) start(from);
+			while (from < to) {
+				action.accept(element(nextNode()));
+				if (expectedModCount != modCount) throw new ConcurrentModificationException(); 	// before following a stale link
 			}
 		}
-		return keys;
+		
+		public Spliterator<T> trySplit() {
+			int mid = (from + to) >>> 1;
+			if (mid <= from) return null;
+			NodeSpliterator<T> prefix = split(from, mid);
+			from = mid;
+			stack = null; 							// reposition at mid on the next element
+			depth = 0;
+			return prefix;
+		}
+		
+		public long estimateSize() {
+			return to - from;
+		}
+		
+		public int characteristics() {
+			return ORDERED | SORTED | DISTINCT | SIZED | SUBSIZED | NONNULL;
+		}
+	}
+	
+	private class KeySpliterator extends NodeSpliterator<Key> {
+		KeySpliterator(int from, int to) {
+			super(from, to);
+		}
+		
+		Key element(Node x) {
+			return x.key;
+		}
+		
+		NodeSpliterator<Key> split(int from, int to) {
+			return new KeySpliterator(from, to);
+		}
+		
+		// keys are sorted by their natural order
+		public Comparator<? super Key> getComparator() {
+			return null;
+		}
+	}
+	
+	private class EntrySpliterator extends NodeSpliterator<Map.Entry<Key, Value>> {
+		EntrySpliterator(int from, int to) {
+			super(from, to);
+		}
+		
+		Map.Entry<Key, Value> element(Node x) {
+			return x;
+		}
+		
+		NodeSpliterator<Map.Entry<Key, Value>> split(int from, int to) {
+			return new EntrySpliterator(from, to);
+		}
+		
+		public Comparator<? super Map.Entry<Key, Value>> getComparator() {
+			return Map.Entry.comparingByKey();
+		}
+	}
+
+	/**
+	 * Returns the keys of RBT level by level, from the root down.
+	 * Walks the tree lazily with a Queue of the Nodes on the next levels.
+	 * @return
+	 */
+	public Iterable<Key> levelOrder() {
+		return () -> new LevelOrderIterator();
 	}
 
-	public Queue<Key> inOrder() {
-		Queue<Key> queue = new Queue<Key>();
-		inOrder(root, queue);
-		return queue;
+	/**
+	 * Returns the keys of RBT in order (left subtree, Node, right subtree).
+	 * @return
+	 */
+	public Iterable<Key> inOrder() {
+		return () -> new InOrderIterator(null, null);
 	}
 	
-	private void inOrder(Node x, Queue<Key> queue) {
-		if (x == null) return;
-		inOrder(x.left, queue);
-		queue.enqueue(x.key);
-		inOrder(x.right, queue);
+	/**
+	 * Returns the keys of RBT in pre-order (Node, left subtree, right subtree).
+	 * @return
+	 */
+	public Iterable<Key> preOrder() {
+		return () -> new PreOrderIterator();
+	}
+	
+	/**
+	 * Returns the keys of RBT in post-order (left subtree, right subtree, Node).
+	 * @return
+	 */
+	public Iterable<Key> postOrder() {
+		return () -> new PostOrderIterator();
+	}
+	
+	/**
+	 * Walks RBT with an explicit stack of Nodes instead of recursion,
+	 * so a traversal holds O(height) Nodes and can be abandoned at any point.
+	 * Iterators fail fast if RBT is structurally changed while they are in use.
+	 */
+	private abstract class TreeIterator implements Iterator<Key> {
+		Node[] stack = newPath(pathCapacity());
+		int depth; 								// number of Nodes on stack
+		private final int expectedModCount = modCount;
+		
+		void push(Node x) {
+			if (depth == stack.length) stack = Arrays.copyOf(stack, 2 * stack.length);
+			stack[depth++] = x;
+		}
+		
+		Node pop() {
+			if (expectedModCount != modCount) throw new ConcurrentModificationException();
+			if (depth == 0) throw new NoSuchElementException();
+			return stack[--depth];
+		}
+		
+		public boolean hasNext() { 
+			return depth > 0;                 
+		}
+		
+		// an iterator, doesn't implement remove() since it's optional
+		public void remove() { 
+			throw new UnsupportedOperationException();  
+		}
 	}
 	
-	public Queue<Key> preOrder() {
-		Queue<Key> queue = new Queue<Key>();
-		preOrder(root, queue);
-		return queue;
+	/**
+	 * Stack holds the path of Nodes whose keys are still to come, 
+	 * smallest on top. Optional lo and hi bound the keys returned.
+	 */
+	private class InOrderIterator extends TreeIterator {
+		private final Key lo, hi; 				// null means no bound
+		
+		InOrderIterator(Key lo, Key hi) {
+			this.lo = lo;
+			this.hi = hi;
+			pushLeft(root);
+		}
+		
+		/**
+		 * Pushes x and its chain of left children, skipping Nodes less than lo.
+		 * Empties the stack once the smallest key left is greater than hi.
+		 * @param x
+		 */
+		private void pushLeft(Node x) {
+			while (x != null) {
+				if (lo != null && lo.compareTo(x.key) > 0) x = x.right; 	// x and its left subtree are too small
+				else {
+					push(x);
+					x = x.left;
+				}
+			}
+			if (hi != null && depth > 0 && hi.compareTo(stack[depth - 1].key) < 0) depth = 0;
+		}
+		
+		Node nextNode() {
+			Node x = pop();
+			pushLeft(x.right);
+			return x;
+		}
+		
+		public Key next() {
+			return nextNode().key;
+		}
 	}
 	
-	private void preOrder(Node x, Queue<Key> queue) {
-		if (x == null) return;
-		queue.enqueue(x.key);
-		preOrder(x.left, queue);
-		preOrder(x.right, queue);
+	private class PreOrderIterator extends TreeIterator {
+		PreOrderIterator() {
+			if (root != null) push(root);
+		}
+		
+		public Key next() {
+			Node x = pop();
+			if (x.right != null) push(x.right); 	// right comes off the stack after left
+			if (x.left != null) push(x.left);
+			return x.key;
+		}
 	}
 	
-	public Queue<Key> postOrder() {
-		Queue<Key> queue = new Queue<Key>();
-		postOrder(root, queue);
-		return queue;
+	/**
+	 * Stack holds the path to the next Node to return, which is always on top.
+	 */
+	private class PostOrderIterator extends TreeIterator {
+		PostOrderIterator() {
+			pushLeftmostLeaf(root);
+		}
+		
+		/**
+		 * Pushes the path from x to the first Node of its subtree in post-order.
+		 * @param x
+		 */
+		private void pushLeftmostLeaf(Node x) {
+			while (x != null) {
+				push(x);
+				x = (x.left != null) ? x.left : x.right;
+			}
+		}
+		
+		public Key next() {
+			Node x = pop();
+			if (depth > 0) {
+				Node parent = stack[depth - 1];
+				if (parent.left == x) pushLeftmostLeaf(parent.right); 	// right subtree comes before parent
+			}
+			return x.key;
+		}
 	}
-
-	private void postOrder(Node x, Queue<Key> queue) {
-		if (x == null) return;
-		postOrder(x.left, queue);
-		postOrder(x.right, queue);
-		queue.enqueue(x.key);
+	
+	/**
+	 * Breadth first, so it holds a Queue of up to one level of Nodes
+	 * rather than a stack.
+	 */
+	private class LevelOrderIterator implements Iterator<Key> {
+		private final Queue<Node> queue = new Queue<Node>();
+		private final int expectedModCount = modCount;
+		
+		LevelOrderIterator() {
+			if (root != null) queue.enqueue(root);
+		}
+		
+		public boolean hasNext() { 
+			return !queue.isEmpty();                 
+		}
+		
+		// an iterator, doesn't implement remove() since it's optional
+		public void remove() { 
+			throw new UnsupportedOperationException();  
+		}
+		
+		public Key next() {
+			if (expectedModCount != modCount) throw new ConcurrentModificationException();
+			if (!hasNext()) throw new NoSuchElementException();
+			Node x = queue.dequeue();
+			if (x.left != null) queue.enqueue(x.left);
+			if (x.right != null) queue.enqueue(x.right);
+			return x.key;
+		}
 	}
 	
+	// All code below is a work in progress.
+	
 	public boolean isBalanced() {
 		return isBalanced(root);
 	}
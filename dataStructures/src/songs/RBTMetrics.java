@@ -0,0 +1,199 @@
+/**
+ * Operation counts and latencies of one RBT, see RBT.enableMetrics().
+ */
+package songs;
+
+import java.util.Arrays;
+import javax.management.ObjectName;
+
+/**
+ * Counts are plain longs written by the thread using the RBT, which is not
+ * thread safe anyway, so recording costs a few adds. A reader on another
+ * thread, such as JMX, may see counts that are slightly out of date.
+ * An RBT without metrics only pays a null check per operation.
+ */
+public class RBTMetrics implements RBTMetricsMXBean {
+
+	long gets, puts, deletes;
+	long comparisons;
+	long leftRotations, rightRotations, colorFlips;
+	private final Histogram getLatency = new Histogram();
+	private final Histogram putLatency = new Histogram();
+	private final Histogram deleteLatency = new Histogram();
+
+	RBTMetrics() {
+	}
+
+	// get's comparisons are counted by RBT.search
+	void get(long nanos) {
+		gets++;
+		getLatency.record(nanos);
+	}
+
+	void put(int compares, long nanos) {
+		puts++;
+		comparisons += compares;
+		putLatency.record(nanos);
+	}
+
+	// delete's comparisons are counted by RBT.search and RBT.compare
+	void delete(long nanos) {
+		deletes++;
+		deleteLatency.record(nanos);
+	}
+
+	public long getGets() {
+		return gets;
+	}
+
+	public long getPuts() {
+		return puts;
+	}
+
+	public long getDeletes() {
+		return deletes;
+	}
+
+	public long getComparisons() {
+		return comparisons;
+	}
+
+	public double getComparisonsPerOperation() {
+		long operations = gets + puts + deletes;
+		return (operations == 0) ? 0 : (double) comparisons / operations;
+	}
+
+	public long getLeftRotations() {
+		return leftRotations;
+	}
+
+	public long getRightRotations() {
+		return rightRotations;
+	}
+
+	public long getColorFlips() {
+		return colorFlips;
+	}
+
+	public long getGetLatencyP50() {
+		return getLatency.percentile(50);
+	}
+
+	public long getGetLatencyP99() {
+		return getLatency.percentile(99);
+	}
+
+	public long getPutLatencyP50() {
+		return putLatency.percentile(50);
+	}
+
+	public long getPutLatencyP99() {
+		return putLatency.percentile(99);
+	}
+
+	public long getDeleteLatencyP50() {
+		return deleteLatency.percentile(50);
+	}
+
+	public long getDeleteLatencyP99() {
+		return deleteLatency.percentile(99);
+	}
+
+	/**
+	 * @return latencies of get, in nanoseconds
+	 */
+	public Histogram getLatency() {
+		return getLatency;
+	}
+
+	public Histogram putLatency() {
+		return putLatency;
+	}
+
+	public Histogram deleteLatency() {
+		return deleteLatency;
+	}
+
+	public void reset() {
+		gets = puts = deletes = 0;
+		comparisons = 0;
+		leftRotations = rightRotations = colorFlips = 0;
+		getLatency.reset();
+		putLatency.reset();
+		deleteLatency.reset();
+	}
+
+	/**
+	 * Registers these metrics with the platform MBeanServer as songs:type=RBT,name=name.
+	 * @param name
+	 * @return
+	 */
+	public ObjectName register(String name) {
+		return Metrics.register(this, "RBT", name);
+	}
+
+	public void unregister(ObjectName objectName) {
+		Metrics.unregister(objectName);
+	}
+
+	@Override
+	public String toString() {
+		return "gets=" + gets + " puts=" + puts + " deletes=" + deletes
+				+ " comparisons=" + comparisons + " rotations=" + leftRotations + "L/" + rightRotations + "R"
+				+ " flips=" + colorFlips
+				+ " get p50/p99=" + getGetLatencyP50() + "/" + getGetLatencyP99() + "ns"
+				+ " put p50/p99=" + getPutLatencyP50() + "/" + getPutLatencyP99() + "ns"
+				+ " delete p50/p99=" + getDeleteLatencyP50() + "/" + getDeleteLatencyP99() + "ns";
+	}
+
+	/**
+	 * Counts values in power of two buckets: bucket b holds values in
+	 * [2^(b-1), 2^b), bucket 0 holds 0. Recording is one add, percentiles are
+	 * rounded up to the top of their bucket.
+	 */
+	public static class Histogram {
+		private final long[] buckets = new long[64];
+		private long count;
+
+		void record(long value) {
+			buckets[64 - Long.numberOfLeadingZeros(Math.max(value, 0))]++;
+			count++;
+		}
+
+		/**
+		 * @return number of values recorded
+		 */
+		public long count() {
+			return count;
+		}
+
+		/**
+		 * @param p between 0 and 100
+		 * @return a value at least as large as p percent of the values, 0 if none
+		 */
+		public long percentile(double p) {
+			if (p < 0 || p > 100) throw new IllegalArgumentException("percentile must be between 0 and 100");
+			if (count == 0) return 0;
+			long rank = (long) Math.ceil(p / 100 * count);
+			long seen = 0;
+			for (int b = 0; b < buckets.length; b++) {
+				seen += buckets[b];
+				if (seen >= rank && seen > 0) return (b == 0) ? 0 : (1L << b) - 1; 	// b == 63 wraps to Long.MAX_VALUE
+			}
+			return Long.MAX_VALUE;
+		}
+
+		/**
+		 * @return a copy of the bucket counts
+		 */
+		public long[] buckets() {
+			return Arrays.copyOf(buckets, buckets.length);
+		}
+
+		void reset() {
+			Arrays.fill(buckets, 0);
+			count = 0;
+		}
+	}
+
+}
@@ -0,0 +1,51 @@
+/**
+ * Management interface of RBTMetrics, for JMX.
+ */
+package songs;
+
+/**
+ * Counts since the last reset. Latencies are in nanoseconds, rounded up to
+ * a power of two by the histogram.
+ */
+public interface RBTMetricsMXBean {
+
+	long getGets();
+
+	long getPuts();
+
+	long getDeletes();
+
+	/**
+	 * @return number of key comparisons made by get, put and delete
+	 */
+	long getComparisons();
+
+	/**
+	 * @return comparisons per get, put and delete, 0 before the first one
+	 */
+	double getComparisonsPerOperation();
+
+	long getLeftRotations();
+
+	long getRightRotations();
+
+	long getColorFlips();
+
+	long getGetLatencyP50();
+
+	long getGetLatencyP99();
+
+	long getPutLatencyP50();
+
+	long getPutLatencyP99();
+
+	long getDeleteLatencyP50();
+
+	long getDeleteLatencyP99();
+
+	/**
+	 * Sets every count back to 0.
+	 */
+	void reset();
+
+}
@@ -0,0 +1,99 @@
+/**
+ * Bounded lock-free queue for exactly one producer thread and one consumer thread.
+ */
+package songs;
+
+import java.util.function.Consumer;
+
+/**
+ * With a single producer and a single consumer no compare-and-set is needed:
+ * only the producer moves tail and only the consumer moves head, each with an
+ * ordered write that publishes the slot it just filled or emptied. Each side
+ * also keeps a cached copy of the other's index and rereads it only when the
+ * queue looks full (producer) or empty (consumer). Each index and the cache
+ * its owner keeps sit on their own padded cache line, so the producer and
+ * the consumer never write the same line.
+ * Using it from more than one producer or more than one consumer is an error.
+ *
+ * @param <Item>
+ */
+public class SPSCQueue<Item> extends BoundedQueue<Item> {
+
+	private final Object[] items; 				// slots, length is a power of two
+	private final int mask;
+	// next position to fill, written by producer only, tail.cached is the producer's last view of head
+	private final PaddedAtomicLong tail = new PaddedAtomicLong();
+	// next position to empty, written by consumer only, head.cached is the consumer's last view of tail
+	private final PaddedAtomicLong head = new PaddedAtomicLong();
+
+	/**
+	 * Constructs an empty queue holding at least capacity items.
+	 * @param capacity rounded up to a power of two
+	 */
+	public SPSCQueue(int capacity) {
+		int length = powerOfTwo(capacity);
+		items = new Object[length];
+		mask = length - 1;
+	}
+
+	public boolean offer(Item item) {
+		if (item == null) throw new IllegalArgumentException("called offer() with null item");
+		long t = tail.get();
+		if (t - tail.cached >= items.length) { 			// looks full, see how far the consumer got
+			tail.cached = head.get();
+			if (t - tail.cached >= items.length) return false;
+		}
+		items[(int) t & mask] = item;
+		tail.lazySet(t + 1); 							// publish item to the consumer
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	public Item poll() {
+		long h = head.get();
+		if (h >= head.cached) { 							// looks empty, see how far the producer got
+			head.cached = tail.get();
+			if (h >= head.cached) return null;
+		}
+		int i = (int) h & mask;
+		Item item = (Item) items[i];
+		items[i] = null; 								// do not hold on to the item
+		head.lazySet(h + 1); 							// hand slot back to the producer
+		return item;
+	}
+
+	/**
+	 * Removes up to max items with one read of tail and one write of head.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public int drainTo(Consumer<? super Item> sink, int max) {
+		if (sink == null) throw new IllegalArgumentException("called drainTo() with null sink");
+		long h = head.get();
+		head.cached = tail.get();
+		int count = (int) Math.max(0, Math.min(max, head.cached - h));
+		int k = 0;
+		try {
+			for (; k < count; k++) {
+				int i = (int) (h + k) & mask;
+				Item item = (Item) items[i];
+				items[i] = null;
+				sink.accept(item);
+			}
+		} finally {
+			// k < count only if sink threw on item k, which was removed like the ones before it
+			head.lazySet((k < count) ? h + k + 1 : h + k);
+		}
+		return count;
+	}
+
+	public int size() {
+		long size = tail.get() - head.get();
+		return (int) Math.max(0, Math.min(size, items.length));
+	}
+
+	public int capacity() {
+		return items.length;
+	}
+
+}
@@ -12,8 +12,10 @@ public class Song implements Comparable<Song> {
 	private String name;
 	private String time;
 	private int seconds;
-	private String album;
+	private String album;		// often shared by the Songs of an album, see SongReader
+	private long albumPrefix;	// first four chars of album, packed so they compare like the String
 	private String year;
+	private int yearNumber;		// year parsed once, so Songs compare years as ints
 	
 	/**
 	 * Constructs Song object from String inputs
@@ -21,19 +23,73 @@ public class Song implements Comparable<Song> {
 	 * @param time
 	 * @param album
 	 * @param year
-	 * The int seconds attribute is derived from String time
+	 * The int seconds attribute is derived from String time, minutes:seconds
+	 * The int year is derived from String year
+	 * Parsing allocates nothing.
 	 */
 	
 	public Song(String name, String time, String album, String year) {
 		this.name = name;
 		this.time = time;
-		String[] str = time.split(":");
-		int x = Integer.parseInt(str[0]);
-		int y = Integer.parseInt(str[1]);
-		seconds = 60*x+y;
-		this.seconds = seconds;
+		this.seconds = parseSeconds(time);
 		this.album = album;
+		this.albumPrefix = prefix(album);
 		this.year = year;
+		this.yearNumber = parseYear(year);
+	}
+	
+	/**
+	 * @param time minutes:seconds, for example 3:19
+	 * @return total number of seconds
+	 */
+	private static int parseSeconds(String time) {
+		int colon = time.indexOf(':');
+		if (colon <= 0 || colon == time.length() - 1) throw new IllegalArgumentException("invalid time \"" + time + "\"");
+		return 60 * parseInt(time, 0, colon, "time") + parseInt(time, colon + 1, time.length(), "time");
+	}
+	
+	/**
+	 * @param year digits, for example 2013
+	 * @return year as an int
+	 */
+	private static int parseYear(String year) {
+		if (year.isEmpty()) throw new IllegalArgumentException("invalid year \"\"");
+		return parseInt(year, 0, year.length(), "year");
+	}
+	
+	/**
+	 * Parses the digits s[from, to) without creating a substring.
+	 * @param s
+	 * @param from
+	 * @param to
+	 * @param what name of the field, for the error message
+	 * @return
+	 */
+	private static int parseInt(String s, int from, int to, String what) {
+		int x = 0;
+		for (int i = from; i < to; i++) {
+			char c = s.charAt(i);
+			if (c < '0' || c > '9' || x > (Integer.MAX_VALUE - 9) / 10) {
+				throw new IllegalArgumentException("invalid " + what + " \"" + s + "\"");
+			}
+			x = 10 * x + (c - '0');
+		}
+		return x;
+	}
+	
+	/**
+	 * Packs the first four chars of s, 16 bits each, padding with 0.
+	 * Two Strings whose prefixes differ compare the same way as the prefixes
+	 * compared as unsigned longs. Equal prefixes say nothing.
+	 * @param s
+	 * @return
+	 */
+	private static long prefix(String s) {
+		long p = 0;
+		for (int i = 0; i < 4; i++) {
+			p = (p << 16) | (i < s.length() ? s.charAt(i) : 0);
+		}
+		return p;
 	}
 	
 	public String getName() {
@@ -56,18 +112,40 @@ public class Song implements Comparable<Song> {
 		return year;
 	}
 	
+	public int getYearNumber() {
+		return yearNumber;
+	}
+	
+	/**
+	 * Compares by year, then album, then seconds (song length).
+	 * Each field is only compared if the ones before it are identical,
+	 * and albums are only compared as Strings if their prefixes tie.
+	 */
 	@Override
 	public int compareTo(Song song) {					// get Comparable objects 
-		int first = this.year.compareTo(song.year);		// first compare by year
-		int second = this.album.compareTo(song.album);	// second compare by album
-		if (first == 0) {								// years are identical
-			if (second == 0) {							// and albums are identical
-				return this.seconds - song.seconds;		// third compare by seconds (song length)
-			} else {
-				return second;
-			}
-		} else {
-			return first;
+		if (this.yearNumber != song.yearNumber) {		// first compare by year
+			return Integer.compare(this.yearNumber, song.yearNumber);
+		}
+		if (this.album != song.album) {					// second compare by album, the same instance is a shortcut
+			if (this.albumPrefix != song.albumPrefix) return Long.compareUnsigned(this.albumPrefix, song.albumPrefix);
+			int second = this.album.compareTo(song.album);
+			if (second != 0) return second;
 		}
+		return Integer.compare(this.seconds, song.seconds);	// third compare by seconds (song length)
+	}
+
+	/**
+	 * Songs are equal when compareTo says so: same year, album and seconds.
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (!(o instanceof Song)) return false;
+		return compareTo((Song) o) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * yearNumber + album.hashCode()) + seconds;
 	}
 }
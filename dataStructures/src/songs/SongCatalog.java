@@ -0,0 +1,229 @@
+/**
+ * Song catalog with secondary indexes: by name, by album and by song length.
+ * keys are Song objects, values are Strings, as in RBT<Song, String>.
+ */
+package songs;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * The Songs are kept in one RBT ordered by Song.compareTo, and each Song is
+ * also in three indexes, updated on every put and delete:
+ *
+ * name		HashMap from name to the Songs with that name
+ * album	RBT from album to the Songs on that album, albums in order
+ * seconds	RBT from length in seconds to the Songs of that length, for ranges
+ *
+ * Index entries are small RBTs from Song to the Song object stored in the
+ * catalog, so a query costs one lookup plus the Songs it returns, and delete
+ * can find the stored Song (its name may differ from the key passed in).
+ * Not thread safe. Iterables returned by queries are lazy and fail fast if
+ * the catalog changes while they are in use.
+ */
+public class SongCatalog {
+
+	private final RBT<Song, String> songs;
+	private final HashMap<String, RBT<Song, Song>> byName = new HashMap<String, RBT<Song, Song>>();
+	private final RBT<String, RBT<Song, Song>> byAlbum = new RBT<String, RBT<Song, Song>>();
+	private final RBT<Integer, RBT<Song, Song>> bySeconds = new RBT<Integer, RBT<Song, Song>>();
+
+	public SongCatalog() {
+		this(new RBT<Song, String>());
+	}
+
+	/**
+	 * Indexes the Songs already in songs. The catalog takes over songs,
+	 * change it only through the catalog from now on.
+	 * @param songs
+	 */
+	public SongCatalog(RBT<Song, String> songs) {
+		if (songs == null) throw new IllegalArgumentException("songs is null");
+		this.songs = songs;
+		for (Song song : songs) index(song);
+	}
+
+	/**
+	 * @return number of Songs in the catalog
+	 */
+	public int size() {
+		return songs.size();
+	}
+
+	public boolean isEmpty() {
+		return songs.isEmpty();
+	}
+
+	public boolean contains(Song key) {
+		return songs.contains(key);
+	}
+
+	/**
+	 * Returns the value associated with key, or null.
+	 * @param key
+	 * @return
+	 */
+	public String get(Song key) {
+		return songs.get(key);
+	}
+
+	/**
+	 * Inserts key with val, or replaces the value of an equal Song already
+	 * in the catalog, which keeps its name. A null val deletes key.
+	 * @param key
+	 * @param val
+	 */
+	public void put(Song key, String val) {
+		if (key == null) throw new IllegalArgumentException("called put() with null key");
+		if (val == null) {
+			delete(key);
+			return;
+		}
+		if (!songs.contains(key)) index(key);
+		songs.put(key, val);
+	}
+
+	/**
+	 * Removes key and its value, if present.
+	 * @param key
+	 */
+	public void delete(Song key) {
+		if (key == null) throw new IllegalArgumentException("called delete() with null key");
+		RBT<Song, Song> album = byAlbum.get(key.getAlbum());
+		Song stored = (album == null) ? null : album.get(key);
+		if (stored == null) return;
+		remove(byName, stored.getName(), stored);
+		remove(byAlbum, stored.getAlbum(), stored);
+		remove(bySeconds, stored.getSeconds(), stored);
+		songs.delete(stored);
+	}
+
+	/**
+	 * @return every Song, in order
+	 */
+	public Iterable<Song> songs() {
+		return songs.keys();
+	}
+
+	/**
+	 * @param name
+	 * @return the Songs called name, in order
+	 */
+	public Iterable<Song> byName(String name) {
+		RBT<Song, Song> index = byName.get(name);
+		return (index == null) ? new RBT<Song, Song>() : index.keys();
+	}
+
+	/**
+	 * @param album
+	 * @return the Songs on album, by year then length
+	 */
+	public Iterable<Song> byAlbum(String album) {
+		RBT<Song, Song> index = byAlbum.get(album);
+		return (index == null) ? new RBT<Song, Song>() : index.keys();
+	}
+
+	/**
+	 * @return every album, in order
+	 */
+	public Iterable<String> albums() {
+		return byAlbum.keys();
+	}
+
+	/**
+	 * @param lo
+	 * @param hi
+	 * @return albums between lo and hi, inclusive, in order
+	 */
+	public Iterable<String> albums(String lo, String hi) {
+		return byAlbum.keys(lo, hi);
+	}
+
+	/**
+	 * Returns the Songs lasting lo to hi seconds, inclusive, shortest first,
+	 * Songs of equal length in order.
+	 * @param lo
+	 * @param hi
+	 * @return
+	 */
+	public Iterable<Song> bySeconds(int lo, int hi) {
+		Iterable<Integer> lengths = bySeconds.keys(lo, hi);
+		return () -> new Flatten<Integer>(lengths.iterator(), seconds -> bySeconds.get(seconds).keys());
+	}
+
+	/**
+	 * @param lo
+	 * @param hi
+	 * @return number of Songs lasting lo to hi seconds, inclusive
+	 */
+	public int countBySeconds(int lo, int hi) {
+		int count = 0;
+		for (int seconds : bySeconds.keys(lo, hi)) count += bySeconds.get(seconds).size();
+		return count;
+	}
+
+	/**
+	 * Adds song to the three indexes.
+	 * @param song
+	 */
+	private void index(Song song) {
+		add(byName, song.getName(), song);
+		add(byAlbum, song.getAlbum(), song);
+		add(bySeconds, song.getSeconds(), song);
+	}
+
+	private static <K> void add(HashMap<K, RBT<Song, Song>> index, K key, Song song) {
+		RBT<Song, Song> entry = index.get(key);
+		if (entry == null) index.put(key, entry = new RBT<Song, Song>());
+		entry.put(song, song);
+	}
+
+	private static <K extends Comparable<K>> void add(RBT<K, RBT<Song, Song>> index, K key, Song song) {
+		RBT<Song, Song> entry = index.get(key);
+		if (entry == null) index.put(key, entry = new RBT<Song, Song>());
+		entry.put(song, song);
+	}
+
+	// an index entry that becomes empty is removed, so the indexes never hold empty trees
+	private static <K> void remove(HashMap<K, RBT<Song, Song>> index, K key, Song song) {
+		RBT<Song, Song> entry = index.get(key);
+		entry.delete(song);
+		if (entry.isEmpty()) index.remove(key);
+	}
+
+	private static <K extends Comparable<K>> void remove(RBT<K, RBT<Song, Song>> index, K key, Song song) {
+		RBT<Song, Song> entry = index.get(key);
+		entry.delete(song);
+		if (entry.isEmpty()) index.delete(key);
+	}
+
+	/**
+	 * Iterates the Songs of each key in turn, looking each key's Songs up
+	 * only when the iteration reaches it.
+	 */
+	private static class Flatten<K> implements Iterator<Song> {
+		private final Iterator<K> keys;
+		private final Function<K, Iterable<Song>> songs;
+		private Iterator<Song> current;
+
+		Flatten(Iterator<K> keys, Function<K, Iterable<Song>> songs) {
+			this.keys = keys;
+			this.songs = songs;
+		}
+
+		public boolean hasNext() {
+			while ((current == null || !current.hasNext()) && keys.hasNext()) {
+				current = songs.apply(keys.next()).iterator();
+			}
+			return current != null && current.hasNext();
+		}
+
+		public Song next() {
+			if (!hasNext()) throw new NoSuchElementException();
+			return current.next();
+		}
+	}
+
+}
@@ -0,0 +1,227 @@
+/**
+ * Loads a songs.csv format catalog into a Red-Black Tree using several threads.
+ * keys are Song objects, values are Songs' names, as in Driver.
+ */
+package songs;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Splits the file into byte ranges that start at line boundaries. Each range
+ * is parsed by its own SongReader on a ForkJoinPool worker and sorted there.
+ * Sorted ranges are merged pairwise, also in parallel, and the result is
+ * bulk loaded into an RBT in linear time with RBT.putAll.
+ * Sorting and merging are stable, so the tree is the same as putting every
+ * row in file order. Rows must not contain line breaks inside quoted fields,
+ * since ranges are split at line breaks.
+ */
+public class SongLoader {
+
+	private static final int CHUNKS_PER_THREAD = 4; 	// more ranges than threads, for load balancing
+	private static final long MIN_CHUNK = 1 << 20; 		// ranges are at least 1 MB
+
+	private SongLoader() {
+	}
+
+	/**
+	 * Loads the file at path using the common ForkJoinPool.
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static RBT<Song, String> load(Path path) throws IOException {
+		return load(path, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Loads the file at path using the threads of pool.
+	 * @param path
+	 * @param pool
+	 * @return
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if a row is not a valid Song, with its line number
+	 */
+	public static RBT<Song, String> load(Path path, ForkJoinPool pool) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			int chunks = (int) Math.max(1, Math.min(pool.getParallelism() * CHUNKS_PER_THREAD, size / MIN_CHUNK));
+			long[] bounds = split(channel, size, chunks);
+			Song[] songs;
+			try {
+				songs = pool.invoke(new Chunks(channel, bounds, 0, chunks));
+			} catch (RuntimeException e) {
+				Throwable t = e;
+				while (isCopy(t)) t = t.getCause();
+				if (t instanceof UncheckedIOException) throw ((UncheckedIOException) t).getCause();
+				throw (RuntimeException) t;
+			}
+			String[] names = new String[songs.length];
+			for (int i = 0; i < songs.length; i++) names[i] = songs[i].getName();
+			RBT<Song, String> rbt = new RBT<Song, String>();
+			rbt.putAll(songs, names); 						// already sorted, so no sort, only the merge and build
+			return rbt;
+		}
+	}
+
+	/**
+	 * ForkJoinPool rethrows an exception from another thread as a copy of the
+	 * same class with the original as its cause, and either no message or the
+	 * cause's toString(). SongReader's own exceptions also wrap one of the same
+	 * class, Song's, but with a line number added to the message, so they stay.
+	 * @param t
+	 * @return true if t is such a copy
+	 */
+	private static boolean isCopy(Throwable t) {
+		Throwable cause = t.getCause();
+		if (cause == null || cause.getClass() != t.getClass()) return false;
+		return t.getMessage() == null || t.getMessage().equals(cause.toString());
+	}
+
+	/**
+	 * Splits [0, size) into chunks ranges, moving each split point forward to
+	 * the start of the next line.
+	 * @param channel
+	 * @param size
+	 * @param chunks
+	 * @return chunks + 1 offsets, range i is [bounds[i], bounds[i + 1])
+	 * @throws IOException
+	 */
+	private static long[] split(FileChannel channel, long size, int chunks) throws IOException {
+		long[] bounds = new long[chunks + 1];
+		bounds[chunks] = size;
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		for (int i = 1; i < chunks; i++) {
+			long at = Math.max(bounds[i - 1], size / chunks * i);
+			bounds[i] = lineStart(channel, at, size, buffer);
+		}
+		return bounds;
+	}
+
+	/**
+	 * @param channel
+	 * @param at
+	 * @param size
+	 * @param buffer
+	 * @return offset of the first line starting at or after at
+	 * @throws IOException
+	 */
+	private static long lineStart(FileChannel channel, long at, long size, ByteBuffer buffer) throws IOException {
+		if (at == 0) return 0;
+		long position = at - 1; 						// at starts a line if the byte before it is a line break
+		while (position < size) {
+			buffer.clear();
+			int n = channel.read(buffer, position);
+			if (n <= 0) break;
+			for (int i = 0; i < n; i++) {
+				if (buffer.get(i) == '\n') return position + i + 1;
+			}
+			position += n;
+		}
+		return size;
+	}
+
+	/**
+	 * @param channel
+	 * @param to
+	 * @return number of line breaks in [0, to)
+	 * @throws IOException
+	 */
+	private static long countLines(FileChannel channel, long to) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+		long lines = 0;
+		for (long position = 0; position < to; ) {
+			buffer.clear();
+			if (to - position < buffer.capacity()) buffer.limit((int) (to - position));
+			int n = channel.read(buffer, position);
+			if (n <= 0) break;
+			for (int i = 0; i < n; i++) {
+				if (buffer.get(i) == '\n') lines++;
+			}
+			position += n;
+		}
+		return lines;
+	}
+
+	/**
+	 * Parses and sorts ranges [lo, hi), splitting in half until one range is left,
+	 * then merges the two sorted halves.
+	 */
+	private static class Chunks extends RecursiveTask<Song[]> {
+		private static final long serialVersionUID = 1L;
+		private final FileChannel channel; 				// positional reads are safe from many threads
+		private final long[] bounds;
+		private final int lo, hi;
+
+		Chunks(FileChannel channel, long[] bounds, int lo, int hi) {
+			this.channel = channel;
+			this.bounds = bounds;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected Song[] compute() {
+			if (hi - lo == 1) return parse(bounds[lo], bounds[hi]);
+			int mid = (lo + hi) >>> 1;
+			Chunks left = new Chunks(channel, bounds, lo, mid);
+			left.fork();
+			Song[] right = new Chunks(channel, bounds, mid, hi).compute();
+			return merge(left.join(), right);
+		}
+
+		/**
+		 * Parses rows in [from, to) and sorts them, stably.
+		 * Line numbers are only worked out if a row turns out to be invalid.
+		 * @param from
+		 * @param to
+		 * @return
+		 */
+		private Song[] parse(long from, long to) {
+			ArrayList<Song> songs = new ArrayList<Song>();
+			SongReader reader = new SongReader();
+			try {
+				try {
+					reader.read(channel, from, to, 1, songs::add);
+				} catch (IllegalArgumentException e) {
+					long firstLine = countLines(channel, from) + 1;	// read the range again for the real line number
+					reader.read(channel, from, to, firstLine, song -> { });
+					throw e;
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			Song[] sorted = songs.toArray(new Song[0]);
+			Arrays.sort(sorted);
+			return sorted;
+		}
+
+		/**
+		 * Merges two sorted arrays. On equal keys a comes first,
+		 * since its rows come earlier in the file.
+		 * @param a
+		 * @param b
+		 * @return
+		 */
+		private static Song[] merge(Song[] a, Song[] b) {
+			Song[] merged = new Song[a.length + b.length];
+			int i = 0, j = 0, k = 0;
+			while (i < a.length && j < b.length) {
+				if (b[j].compareTo(a[i]) < 0) merged[k++] = b[j++];
+				else merged[k++] = a[i++];
+			}
+			while (i < a.length) merged[k++] = a[i++];
+			while (j < b.length) merged[k++] = b[j++];
+			return merged;
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+/**
+ * Reads Song records from CSV files in the songs.csv format:
+ * name,time,album,year
+ * one Song per line, fields may be quoted with "" for a literal quote.
+ */
+package songs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.Consumer;
+
+/**
+ * Streams the file through one direct ByteBuffer and parses it byte by byte
+ * with a small state machine, no Scanner, regex or per-line String.
+ * Each field is collected in a reused byte array and becomes one String,
+ * so a row allocates its four field Strings and the Song.
+ * Songs of the same album in one read share its String, the pool is
+ * emptied at the start and end of every read.
+ * A SongReader can read many files, one at a time, reusing its buffers.
+ */
+public class SongReader {
+
+	private static final int FIELDS = 4; 				// name, time, album, year
+	private static final byte QUOTE = '"';
+	private static final byte COMMA = ',';
+	private static final byte CR = '\r';
+	private static final byte LF = '\n';
+
+	private final ByteBuffer buffer; 					// bytes read from the file, reused
+	private byte[] field = new byte[256]; 				// bytes of the current field, reused
+	private int length; 								// number of bytes in field
+	private final String[] fields = new String[FIELDS]; // fields of the current row
+	private int count; 									// number of fields in the current row
+	private final HashMap<String, String> albums = new HashMap<String, String>(); // one instance per album in the current read
+
+	public SongReader() {
+		this(1 << 16);
+	}
+
+	/**
+	 * @param bufferSize number of bytes read from the file at a time
+	 */
+	public SongReader(int bufferSize) {
+		if (bufferSize < 1) throw new IllegalArgumentException("bufferSize must be positive");
+		buffer = ByteBuffer.allocateDirect(bufferSize);
+	}
+
+	/**
+	 * Reads every Song in the file at path, in file order, and passes each to sink.
+	 * Blank lines are skipped.
+	 * @param path
+	 * @param sink
+	 * @return number of Songs read
+	 * @throws IOException if the file cannot be read
+	 * @throws IllegalArgumentException if a row is not a valid Song, with its line number
+	 */
+	public long read(Path path, Consumer<? super Song> sink) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			return read(channel, 0, channel.size(), 1, sink);
+		}
+	}
+
+	/**
+	 * Reads every Song in bytes [from, to) of channel, which must start at the
+	 * beginning of a line, and passes each to sink.
+	 * A row that starts before to is read to its end, even past to.
+	 * @param channel
+	 * @param from
+	 * @param to
+	 * @param firstLine line number of the line at from, for error messages
+	 * @param sink
+	 * @return number of Songs read
+	 * @throws IOException
+	 */
+	long read(FileChannel channel, long from, long to, long firstLine, Consumer<? super Song> sink) throws IOException {
+		long songs = 0;
+		long line = firstLine; 							// line the parser is on
+		long rowLine = firstLine;						// line the current row started on
+		long position = from;							// file offset of the next byte to read
+		boolean quoted = false;							// inside a quoted field
+		boolean quote = false;							// last byte was a quote inside a quoted field
+		boolean rowStarted = false;						// some bytes of the current row have been seen
+		length = 0;
+		count = 0;
+		albums.clear();
+		buffer.clear();
+		buffer.limit(0);
+		if (from >= to) return 0;
+		while (true) {
+			if (!buffer.hasRemaining()) {
+				if (!rowStarted && position >= to) break; 	// range done, between rows
+				buffer.clear();
+				int n = channel.read(buffer, position);
+				buffer.flip();
+				if (n <= 0) break; 						// end of file
+				position += n;
+			}
+			byte b = buffer.get();
+			if (quoted) {
+				if (quote) { 							// previous byte was a quote
+					quote = false;
+					if (b == QUOTE) { 					// "" is a literal quote
+						append(b);
+						continue;
+					}
+					quoted = false; 					// it closed the field, handle b below
+				} else {
+					if (b == QUOTE) quote = true;
+					else {
+						if (b == LF) line++; 			// line break inside a quoted field
+						append(b);
+					}
+					continue;
+				}
+			}
+			if (b == COMMA) {
+				endField(rowLine);
+				rowStarted = true;
+			} else if (b == LF) {
+				if (rowStarted || length > 0) {
+					endField(rowLine);
+					sink.accept(endRow(rowLine));
+					songs++;
+				}
+				rowStarted = false;
+				line++;
+				rowLine = line;
+				if (position - buffer.remaining() >= to) break; 	// next row starts at or after to
+			} else if (b == QUOTE && length == 0) {
+				quoted = true; 							// quote at the start of a field opens it
+				rowStarted = true;
+			} else if (b != CR) {
+				append(b);
+				rowStarted = true;
+			}
+		}
+		if (quoted && !quote) throw new IllegalArgumentException("line " + rowLine + ": quoted field is not closed");
+		if (rowStarted || length > 0) { 				// last row has no line break
+			endField(rowLine);
+			sink.accept(endRow(rowLine));
+			songs++;
+		}
+		albums.clear();
+		return songs;
+	}
+
+	private void append(byte b) {
+		if (length == field.length) field = Arrays.copyOf(field, 2 * field.length);
+		field[length++] = b;
+	}
+
+	private void endField(long rowLine) {
+		if (count == FIELDS) throw new IllegalArgumentException("line " + rowLine + ": more than " + FIELDS + " fields");
+		fields[count++] = new String(field, 0, length, StandardCharsets.UTF_8);
+		length = 0;
+	}
+
+	private Song endRow(long rowLine) {
+		if (count < FIELDS) throw new IllegalArgumentException("line " + rowLine + ": expected " + FIELDS + " fields, found " + count);
+		count = 0;
+		try {
+			String album = albums.putIfAbsent(fields[2], fields[2]);
+			return new Song(fields[0], fields[1], (album == null) ? fields[2] : album, fields[3]);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("line " + rowLine + ": " + e.getMessage(), e);
+		}
+	}
+
+}
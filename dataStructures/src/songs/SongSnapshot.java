@@ -0,0 +1,351 @@
+/**
+ * Binary snapshot of a Red-Black Tree of Songs, for fast restarts.
+ * keys are Song objects, values are Strings, as in Driver.
+ */
+package songs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * File layout, all numbers big-endian:
+ *
+ * header		int MAGIC, int VERSION, int count, int strings, long recordsOffset, long heapOffset
+ * table index	strings ints, offset of each table string from the start of the table
+ * table		strings entries of int length, UTF-8 bytes
+ * records		count records of RECORD bytes, in Song order:
+ * 				int year, int yearString, int album, int seconds, int time, long name, long value
+ * heap			int length, UTF-8 bytes for every name and value
+ *
+ * Year Strings, albums and times are stored once each in the table, sorted, and
+ * records refer to them by index. Since the table is sorted, comparing album
+ * indices orders Songs the same way as comparing the Strings. Songs compare
+ * years as numbers, so "999" comes before "1000", and records hold the year
+ * number as well as its String, so a mapped snapshot can binary search
+ * records with int compares only. name and value are offsets from the
+ * start of the heap, a value equal to its name is stored once.
+ * Records are in Song order, so load() bulk builds the tree with RBT.fromSorted.
+ */
+public class SongSnapshot {
+
+	private static final int MAGIC = 0x534F4E47; 		// "SONG"
+	private static final int VERSION = 2;
+	private static final int HEADER = 32; 				// bytes before the table index
+	private static final int RECORD = 36; 				// bytes per record
+	// offsets of the fields within a record
+	private static final int YEAR = 0, YEAR_STRING = 4, ALBUM = 8, SECONDS = 12, TIME = 16, NAME = 20, VALUE = 28;
+
+	private final ByteBuffer buffer; 					// whole file, mapped
+	private final int count;
+	private final int strings;
+	private final int table; 							// offset of the table
+	private final int records;
+	private final int heap;
+
+	private SongSnapshot(ByteBuffer buffer) {
+		this.buffer = buffer;
+		if (buffer.getInt(0) != MAGIC) throw new IllegalArgumentException("not a song snapshot");
+		if (buffer.getInt(4) != VERSION) throw new IllegalArgumentException("unsupported song snapshot version " + buffer.getInt(4));
+		count = buffer.getInt(8);
+		strings = buffer.getInt(12);
+		table = HEADER + 4 * strings;
+		records = (int) buffer.getLong(16);
+		heap = (int) buffer.getLong(24);
+	}
+
+	/**
+	 * Writes rbt to a new snapshot file at path, replacing any file there.
+	 * @param rbt
+	 * @param path
+	 * @throws IOException
+	 */
+	public static void write(RBT<Song, String> rbt, Path path) throws IOException {
+		// table of distinct years, albums and times, sorted
+		TreeSet<String> sorted = new TreeSet<String>();
+		for (Song song : rbt.keys()) {
+			sorted.add(song.getYear());
+			sorted.add(song.getAlbum());
+			sorted.add(song.getTime());
+		}
+		HashMap<String, Integer> ids = new HashMap<String, Integer>();
+		byte[][] table = new byte[sorted.size()][];
+		int tableBytes = 0;
+		for (String s : sorted) {
+			table[ids.size()] = s.getBytes(StandardCharsets.UTF_8);
+			tableBytes += 4 + table[ids.size()].length;
+			ids.put(s, ids.size());
+		}
+		long records = HEADER + 4L * table.length + tableBytes;
+		long heap = records + (long) RECORD * rbt.size();
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(rbt.size());
+			out.writeInt(table.length);
+			out.writeLong(records);
+			out.writeLong(heap);
+			int offset = 0;
+			for (byte[] s : table) {
+				out.writeInt(offset);
+				offset += 4 + s.length;
+			}
+			for (byte[] s : table) {
+				out.writeInt(s.length);
+				out.write(s);
+			}
+			long next = 0; 										// heap offset of the next String
+			Iterator<Map.Entry<Song, String>> entries = rbt.stream().iterator();
+			while (entries.hasNext()) {
+				Map.Entry<Song, String> e = entries.next();
+				Song song = e.getKey();
+				out.writeInt(song.getYearNumber());
+				out.writeInt(ids.get(song.getYear()));
+				out.writeInt(ids.get(song.getAlbum()));
+				out.writeInt(song.getSeconds());
+				out.writeInt(ids.get(song.getTime()));
+				long name = next;
+				next += 4 + utf8Length(song.getName());
+				out.writeLong(name);
+				if (e.getValue().equals(song.getName())) {
+					out.writeLong(name);
+				} else {
+					out.writeLong(next);
+					next += 4 + utf8Length(e.getValue());
+				}
+			}
+			entries = rbt.stream().iterator(); 					// heap Strings, in the same order
+			while (entries.hasNext()) {
+				Map.Entry<Song, String> e = entries.next();
+				byte[] name = e.getKey().getName().getBytes(StandardCharsets.UTF_8);
+				out.writeInt(name.length);
+				out.write(name);
+				if (!e.getValue().equals(e.getKey().getName())) {
+					byte[] value = e.getValue().getBytes(StandardCharsets.UTF_8);
+					out.writeInt(value.length);
+					out.write(value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Number of bytes in the UTF-8 encoding of s, without encoding it.
+	 * @param s
+	 * @return
+	 */
+	private static int utf8Length(String s) {
+		int length = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c < 0x80) length += 1;
+			else if (c < 0x800) length += 2;
+			else if (!Character.isSurrogate(c)) length += 3;
+			else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+				length += 4; 									// surrogate pair, one 4 byte code point
+				i++;
+			}
+			else length += 1; 									// lone surrogate, encoded as '?'
+		}
+		return length;
+	}
+
+	/**
+	 * Reads a whole snapshot into a new RBT, streaming the file once.
+	 * Equal years, albums and times share one String.
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static RBT<Song, String> load(Path path) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+			if (in.readInt() != MAGIC) throw new IllegalArgumentException("not a song snapshot");
+			int version = in.readInt();
+			if (version != VERSION) throw new IllegalArgumentException("unsupported song snapshot version " + version);
+			int count = in.readInt();
+			String[] table = new String[in.readInt()];
+			in.readLong();
+			in.readLong();
+			for (int i = 0; i < table.length; i++) in.readInt();	// table index, only needed when mapped
+			byte[] bytes = new byte[256];
+			for (int i = 0; i < table.length; i++) {
+				int length = in.readInt();
+				if (length > bytes.length) bytes = new byte[Math.max(length, 2 * bytes.length)];
+				in.readFully(bytes, 0, length);
+				table[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+			}
+			int[] year = new int[count];
+			int[] album = new int[count];
+			int[] time = new int[count];
+			boolean[] shared = new boolean[count]; 			// value is stored as the name
+			for (int i = 0; i < count; i++) {
+				in.readInt(); 									// year number, derived from the year by Song
+				year[i] = in.readInt();
+				album[i] = in.readInt();
+				in.readInt(); 									// seconds, derived from time by Song
+				time[i] = in.readInt();
+				shared[i] = in.readLong() == in.readLong();
+			}
+			Song[] keys = new Song[count];
+			String[] vals = new String[count];
+			for (int i = 0; i < count; i++) { 					// heap Strings are in record order
+				int length = in.readInt();
+				if (length > bytes.length) bytes = new byte[Math.max(length, 2 * bytes.length)];
+				in.readFully(bytes, 0, length);
+				String name = new String(bytes, 0, length, StandardCharsets.UTF_8);
+				keys[i] = new Song(name, table[time[i]], table[album[i]], table[year[i]]);
+				if (shared[i]) {
+					vals[i] = name;
+				} else {
+					length = in.readInt();
+					if (length > bytes.length) bytes = new byte[Math.max(length, 2 * bytes.length)];
+					in.readFully(bytes, 0, length);
+					vals[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+				}
+			}
+			return RBT.fromSorted(keys, vals);
+		}
+	}
+
+	/**
+	 * Maps a snapshot into memory without reading it. Lookups binary search the
+	 * mapped records and only decode the Strings they return.
+	 * The file must be smaller than 2 GB.
+	 * @param path
+	 * @return
+	 * @throws IOException
+	 */
+	public static SongSnapshot map(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() > Integer.MAX_VALUE) throw new IllegalArgumentException("song snapshot too large to map: " + channel.size() + " bytes");
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new SongSnapshot(buffer); 				// mapping stays valid after the channel is closed
+		}
+	}
+
+	/**
+	 * @return number of Songs in the snapshot
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Returns the value associated with key, or null if key is not in the snapshot.
+	 * O(log n) int compares, plus O(log s) String compares to find key's album
+	 * among the s table Strings.
+	 * @param key
+	 * @return
+	 */
+	public String get(Song key) {
+		if (key == null) throw new IllegalArgumentException("called get() with null key");
+		int i = find(key);
+		return (i < 0) ? null : heapString(buffer.getLong(records + RECORD * i + VALUE));
+	}
+
+	/**
+	 * @param key
+	 * @return true if key is in the snapshot
+	 */
+	public boolean contains(Song key) {
+		if (key == null) throw new IllegalArgumentException("called contains() with null key");
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Returns the Song of rank k, the kth smallest (counting from 0).
+	 * @param k
+	 * @return
+	 */
+	public Song select(int k) {
+		if (k < 0 || k >= count) throw new IllegalArgumentException("called select() with invalid rank: " + k);
+		int r = records + RECORD * k;
+		return new Song(heapString(buffer.getLong(r + NAME)), tableString(buffer.getInt(r + TIME)),
+				tableString(buffer.getInt(r + ALBUM)), tableString(buffer.getInt(r + YEAR_STRING)));
+	}
+
+	/**
+	 * Returns the value of the Song of rank k.
+	 * @param k
+	 * @return
+	 */
+	public String value(int k) {
+		if (k < 0 || k >= count) throw new IllegalArgumentException("called value() with invalid rank: " + k);
+		return heapString(buffer.getLong(records + RECORD * k + VALUE));
+	}
+
+	/**
+	 * @param key
+	 * @return index of the record for key, or -1
+	 */
+	private int find(Song key) {
+		int year = key.getYearNumber();
+		int album = tableIndex(key.getAlbum());
+		if (album < 0) return -1; 							// no Song has that album
+		int seconds = key.getSeconds();
+		int lo = 0, hi = count - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int r = records + RECORD * mid;
+			int cmp = Integer.compare(year, buffer.getInt(r + YEAR));
+			if (cmp == 0) cmp = Integer.compare(album, buffer.getInt(r + ALBUM));
+			if (cmp == 0) cmp = Integer.compare(seconds, buffer.getInt(r + SECONDS));
+			if (cmp < 0) hi = mid - 1;
+			else if (cmp > 0) lo = mid + 1;
+			else return mid;
+		}
+		return -1;
+	}
+
+	/**
+	 * @param s
+	 * @return index of s in the sorted table, or -1
+	 */
+	private int tableIndex(String s) {
+		int lo = 0, hi = strings - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			int cmp = s.compareTo(tableString(mid));
+			if (cmp < 0) hi = mid - 1;
+			else if (cmp > 0) lo = mid + 1;
+			else return mid;
+		}
+		return -1;
+	}
+
+	private String tableString(int i) {
+		return string(table + buffer.getInt(HEADER + 4 * i));
+	}
+
+	private String heapString(long offset) {
+		return string(heap + (int) offset);
+	}
+
+	/**
+	 * Decodes the int length, UTF-8 bytes String at position.
+	 * @param position
+	 * @return
+	 */
+	private String string(int position) {
+		int length = buffer.getInt(position);
+		byte[] bytes = new byte[length];
+		buffer.duplicate().position(position + 4).get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
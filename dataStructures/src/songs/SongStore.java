@@ -0,0 +1,406 @@
+/**
+ * Song catalog stored in off-heap columns, with a primitive sorted index.
+ * Answers the same ordered iteration and lookup queries as RBT<Song, String>
+ * without keeping a Song object per row on the heap.
+ */
+package songs;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Each row is one Song and its value. Columns are direct buffers:
+ *
+ * year, album, time			int per row, dictionary ids
+ * seconds						int per row
+ * name, value					int offset per row into the text heap
+ * text heap					int length, UTF-8 bytes of every name and value
+ * index						row numbers in Song order
+ * keys							packed year, album, seconds of each index entry
+ *
+ * The album dictionary is sorted, so album ids order the same way as the
+ * album Strings, and a packed key (16 bits year, 24 bits album, 24 bits seconds)
+ * orders rows the same way as Song.compareTo. Years stop at 2^15 - 1, so the sign
+ * bit stays clear and keys compare as signed longs. Lookups binary search the keys
+ * column with long compares only. The heap holds only the year, album and
+ * time dictionaries. Built with SongStore.Builder, immutable after that.
+ */
+public class SongStore implements Iterable<Song> {
+
+	private final IntBuffer year, album, seconds, time, name, value;
+	private final ByteBuffer text;
+	private final IntBuffer index;
+	private final LongBuffer keys;
+	private final String[] albums; 				// album dictionary, sorted
+	private final String[] times; 				// time dictionary
+	private final String[] years; 				// year dictionary
+	private final int n; 						// number of distinct Songs
+
+	private SongStore(Builder b, IntBuffer index, LongBuffer keys, String[] albums, int n) {
+		this.year = b.year;
+		this.album = b.album;
+		this.seconds = b.seconds;
+		this.time = b.time;
+		this.name = b.name;
+		this.value = b.value;
+		this.text = b.text;
+		this.index = index;
+		this.keys = keys;
+		this.albums = albums;
+		this.times = b.times.strings();
+		this.years = b.years.strings();
+		this.n = n;
+	}
+
+	/**
+	 * Builds a SongStore from the Songs and values of rbt.
+	 * @param rbt
+	 * @return
+	 */
+	public static SongStore of(RBT<Song, String> rbt) {
+		Builder b = new Builder();
+		rbt.stream().forEach(e -> b.add(e.getKey(), e.getValue()));
+		return b.build();
+	}
+
+	/**
+	 * @return number of Songs in the store
+	 */
+	public int size() {
+		return n;
+	}
+
+	public boolean isEmpty() {
+		return n == 0;
+	}
+
+	/**
+	 * Returns the value associated with key, or null.
+	 * @param key
+	 * @return
+	 */
+	public String get(Song key) {
+		if (key == null) throw new IllegalArgumentException("called get() with null key");
+		int k = find(key);
+		return (k < 0) ? null : value(k);
+	}
+
+	/**
+	 * @param key
+	 * @return true if key is in the store
+	 */
+	public boolean contains(Song key) {
+		if (key == null) throw new IllegalArgumentException("called contains() with null key");
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Returns the number of Songs in the store strictly less than key.
+	 * @param key
+	 * @return
+	 */
+	public int rank(Song key) {
+		if (key == null) throw new IllegalArgumentException("called rank() with null key");
+		if (key.getYearNumber() > Builder.MAX_YEAR) return n; 	// later than every stored year
+		int a = Arrays.binarySearch(albums, key.getAlbum());
+		// an album not in the store is less than every Song of that year with a larger album
+		long packed = (a >= 0) ? pack(key, a) : pack(key.getYearNumber(), -a - 1, 0);
+		// seconds past MAX_SECONDS would spill into the album bits, such a key comes after its whole album
+		boolean after = a >= 0 && key.getSeconds() > Builder.MAX_SECONDS;
+		if (after) packed = pack(key.getYearNumber(), a, Builder.MAX_SECONDS);
+		int lo = 0, hi = n;
+		while (lo < hi) { 							// first entry not less than packed, or greater if after
+			int mid = (lo + hi) >>> 1;
+			long k = keys.get(mid);
+			if (k < packed || (after && k == packed)) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo;
+	}
+
+	/**
+	 * Returns the Song of rank k, the kth smallest (counting from 0).
+	 * Creates the Song from its columns.
+	 * @param k
+	 * @return
+	 */
+	public Song select(int k) {
+		if (k < 0 || k >= n) throw new IllegalArgumentException("called select() with invalid rank: " + k);
+		int row = index.get(k);
+		return new Song(string(name.get(row)), times[time.get(row)], albums[album.get(row)], years[year.get(row)]);
+	}
+
+	/**
+	 * Returns the value of the Song of rank k.
+	 * @param k
+	 * @return
+	 */
+	public String value(int k) {
+		if (k < 0 || k >= n) throw new IllegalArgumentException("called value() with invalid rank: " + k);
+		return string(value.get(index.get(k)));
+	}
+
+	/**
+	 * Returns the Songs in order. Each Song is created as the caller reaches it.
+	 * @return
+	 */
+	public Iterable<Song> keys() {
+		return this;
+	}
+
+	public Iterator<Song> iterator() {
+		return new Iterator<Song>() {
+			private int k;
+
+			public boolean hasNext() {
+				return k < n;
+			}
+
+			public Song next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				return select(k++);
+			}
+		};
+	}
+
+	/**
+	 * @param key
+	 * @return rank of key, or -1 if key is not in the store
+	 */
+	private int find(Song key) {
+		if (key.getYearNumber() > Builder.MAX_YEAR) return -1; 	// no Song has that year
+		if (key.getSeconds() > Builder.MAX_SECONDS) return -1; 	// or that length
+		int a = Arrays.binarySearch(albums, key.getAlbum());
+		if (a < 0) return -1; 							// no Song has that album
+		long packed = pack(key, a);
+		int lo = 0, hi = n - 1;
+		while (lo <= hi) {
+			int mid = (lo + hi) >>> 1;
+			long k = keys.get(mid);
+			if (packed < k) hi = mid - 1;
+			else if (packed > k) lo = mid + 1;
+			else return mid;
+		}
+		return -1;
+	}
+
+	private static long pack(Song song, int albumId) {
+		return pack(song.getYearNumber(), albumId, song.getSeconds());
+	}
+
+	/**
+	 * @return year, album and seconds in one long that orders like Song.compareTo
+	 */
+	private static long pack(int year, int albumId, int seconds) {
+		return ((long) year << 48) | ((long) albumId << 24) | seconds;
+	}
+
+	/**
+	 * Decodes the int length, UTF-8 bytes String at offset in the text heap.
+	 * @param offset
+	 * @return
+	 */
+	private String string(int offset) {
+		int length = text.getInt(offset);
+		byte[] bytes = new byte[length];
+		text.duplicate().position(offset + 4).get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Collects rows into off-heap columns, then sorts the index.
+	 * Adding a Song equal to one already added keeps the first Song and the
+	 * last value, the same as RBT.put.
+	 */
+	public static class Builder {
+		private static final int MAX_YEAR = (1 << 15) - 1; 		// keeps the sign bit of packed keys clear
+		private static final int MAX_ALBUMS = 1 << 24;
+		private static final int MAX_SECONDS = (1 << 24) - 1;
+
+		private IntBuffer year = ints(1024), album = ints(1024), seconds = ints(1024), time = ints(1024);
+		private IntBuffer name = ints(1024), value = ints(1024);
+		private ByteBuffer text = ByteBuffer.allocateDirect(1 << 16);
+		private final Dictionary albums = new Dictionary(), times = new Dictionary(), years = new Dictionary();
+		private final ArrayList<Integer> yearNumbers = new ArrayList<Integer>();
+		private int rows;
+		private boolean built;
+
+		public Builder() {
+		}
+
+		/**
+		 * Adds a row.
+		 * @param song
+		 * @param val
+		 * @return this Builder
+		 */
+		public Builder add(Song song, String val) {
+			if (built) throw new IllegalStateException("SongStore already built");
+			if (song == null) throw new IllegalArgumentException("called add() with null song");
+			if (val == null) throw new IllegalArgumentException("called add() with null value");
+			if (song.getYearNumber() > MAX_YEAR) throw new IllegalArgumentException("year out of range: " + song.getYear());
+			if (song.getSeconds() > MAX_SECONDS) throw new IllegalArgumentException("time out of range: " + song.getTime());
+			if (rows == year.capacity()) grow();
+			if (albums.size() == MAX_ALBUMS && !albums.contains(song.getAlbum())) {
+				throw new IllegalArgumentException("more than " + MAX_ALBUMS + " albums");
+			}
+			int y = years.id(song.getYear());
+			if (y == yearNumbers.size()) yearNumbers.add(song.getYearNumber());
+			year.put(rows, y);
+			album.put(rows, albums.id(song.getAlbum()));
+			seconds.put(rows, song.getSeconds());
+			time.put(rows, times.id(song.getTime()));
+			int nameOffset = append(song.getName());
+			name.put(rows, nameOffset);
+			value.put(rows, val.equals(song.getName()) ? nameOffset : append(val));
+			rows++;
+			return this;
+		}
+
+		/**
+		 * Sorts the album dictionary and the index, and drops duplicate Songs.
+		 * The Builder cannot be used afterwards.
+		 * @return
+		 */
+		public SongStore build() {
+			if (built) throw new IllegalStateException("SongStore already built");
+			built = true;
+			String[] sorted = albums.strings();
+			Arrays.sort(sorted);
+			int[] remap = new int[sorted.length]; 			// id in order first seen -> id in sorted order
+			for (int i = 0; i < sorted.length; i++) remap[albums.id(sorted[i])] = i;
+			long[] packed = new long[rows];
+			int[] order = new int[rows];
+			for (int r = 0; r < rows; r++) {
+				album.put(r, remap[album.get(r)]);
+				packed[r] = pack(yearNumbers.get(year.get(r)), album.get(r), seconds.get(r));
+				order[r] = r;
+			}
+			sort(order, packed);
+			// keep the first row of each run of equal keys, with the value of the last
+			IntBuffer index = ints(Math.max(1, rows));
+			LongBuffer keys = ByteBuffer.allocateDirect(8 * Math.max(1, rows)).asLongBuffer();
+			int n = 0;
+			for (int i = 0; i < rows; ) {
+				int first = order[i];
+				int last = first;
+				for (i++; i < rows && packed[order[i]] == packed[first]; i++) last = order[i];
+				value.put(first, value.get(last));
+				index.put(n, first);
+				keys.put(n++, packed[first]);
+			}
+			return new SongStore(this, index, keys, sorted, n);
+		}
+
+		/**
+		 * Appends s to the text heap.
+		 * @param s
+		 * @return offset of s
+		 */
+		private int append(String s) {
+			byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			if ((long) text.position() + 4 + bytes.length > Integer.MAX_VALUE) throw new IllegalArgumentException("SongStore text over 2 GB");
+			if (text.remaining() < 4 + bytes.length) {
+				long capacity = Math.max(2L * text.capacity(), (long) text.position() + 4 + bytes.length);
+				ByteBuffer bigger = ByteBuffer.allocateDirect((int) Math.min(capacity, Integer.MAX_VALUE));
+				text.flip();
+				bigger.put(text);
+				text = bigger;
+			}
+			int offset = text.position();
+			text.putInt(bytes.length);
+			text.put(bytes);
+			return offset;
+		}
+
+		private void grow() {
+			int capacity = 2 * year.capacity();
+			year = copy(year, capacity);
+			album = copy(album, capacity);
+			seconds = copy(seconds, capacity);
+			time = copy(time, capacity);
+			name = copy(name, capacity);
+			value = copy(value, capacity);
+		}
+
+		private static IntBuffer ints(int capacity) {
+			return ByteBuffer.allocateDirect(4 * capacity).asIntBuffer();
+		}
+
+		private static IntBuffer copy(IntBuffer column, int capacity) {
+			IntBuffer bigger = ints(capacity);
+			column.clear();
+			bigger.put(column);
+			return bigger;
+		}
+
+		/**
+		 * Stable merge sort of rows by packed[row], on int arrays, no boxing.
+		 * @param rows
+		 * @param packed
+		 */
+		private static void sort(int[] rows, long[] packed) {
+			int[] aux = new int[rows.length];
+			for (int width = 1; width < rows.length; width *= 2) {
+				for (int lo = 0; lo < rows.length - width; lo += 2 * width) {
+					int mid = lo + width;
+					int hi = Math.min(lo + 2 * width, rows.length);
+					if (packed[rows[mid - 1]] <= packed[rows[mid]]) continue; 	// already in order
+					System.arraycopy(rows, lo, aux, lo, hi - lo);
+					int i = lo, j = mid;
+					for (int k = lo; k < hi; k++) {
+						if (i == mid) rows[k] = aux[j++];
+						else if (j == hi) rows[k] = aux[i++];
+						else if (packed[aux[j]] < packed[aux[i]]) rows[k] = aux[j++];
+						else rows[k] = aux[i++];
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gives each distinct String an int id, in order first seen.
+	 */
+	private static class Dictionary {
+		private final HashMap<String, Integer> ids = new HashMap<String, Integer>();
+		private final ArrayList<String> strings = new ArrayList<String>();
+
+		/**
+		 * @param s
+		 * @return id of s, adding s if it is new
+		 */
+		int id(String s) {
+			Integer id = ids.get(s);
+			if (id == null) {
+				id = strings.size();
+				ids.put(s, id);
+				strings.add(s);
+			}
+			return id;
+		}
+
+		boolean contains(String s) {
+			return ids.containsKey(s);
+		}
+
+		int size() {
+			return strings.size();
+		}
+
+		/**
+		 * @return the Strings, indexed by id
+		 */
+		String[] strings() {
+			return strings.toArray(new String[0]);
+		}
+	}
+
+}